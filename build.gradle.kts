@@ -6,12 +6,25 @@ plugins {
 
 android {
 	namespace = "com.ikknight.octofault"
+	// JMH benchmarks compile with the unit tests so they see the FTC SDK on a desktop JVM
+	sourceSets {
+		getByName("test").java.srcDir("src/jmh/java")
+	}
+	testOptions {
+		unitTests.isReturnDefaultValues = true
+	}
+	// simulated hardware for tests and benchmarks, kept out of the published library
+	testFixtures {
+		enable = true
+	}
 }
 
 ftc {
 	kotlin
 	sdk {
-		RobotCore
+		RobotCore {
+			configurationNames += "testFixturesImplementation"
+		}
 		FtcCommon {
 			configurationNames += "testImplementation"
 		}
@@ -25,6 +38,25 @@ val dokkaJar = tasks.register<Jar>("dokkaJar") {
 dependencies {
 	compileOnly("com.acmerobotics.slothboard:dashboard:0.2.3+0.4.16")
 	compileOnly("dev.frozenmilk.sinister:Sloth:0.2.3")
+	testImplementation("junit:junit:4.13.2")
+	testImplementation("org.openjdk.jmh:jmh-core:1.37")
+	testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// ./gradlew jmh [-Pjmh.include=FaultManagerBenchmark] [-Pjmh.args="-p deviceCount=50"]
+tasks.register<JavaExec>("jmh") {
+	group = "verification"
+	description = "Runs the JMH benchmarks against simulated hardware, reporting ns/op and bytes allocated per op."
+	val unitTest = tasks.named<Test>("testDebugUnitTest")
+	dependsOn("compileDebugUnitTestJavaWithJavac")
+	classpath = files(unitTest.map { it.classpath })
+	mainClass.set("org.openjdk.jmh.Main")
+	val results = layout.buildDirectory.file("reports/jmh/results.json")
+	outputs.upToDateWhen { false }
+	doFirst { results.get().asFile.parentFile.mkdirs() }
+	args("-prof", "gc", "-rf", "json", "-rff", results.get().asFile.absolutePath)
+	(findProperty("jmh.args") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
+	args((findProperty("jmh.include") as String?) ?: "com.ikknight.octofault.benchmark")
 }
 
 repositories {
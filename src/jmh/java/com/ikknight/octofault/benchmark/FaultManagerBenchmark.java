@@ -0,0 +1,58 @@
+package com.ikknight.octofault.benchmark;
+
+import com.ikknight.octofault.core.FaultManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one {@link FaultManager#updateAll()} tick over a mixed robot of simulated devices. One operation is one tick; run with {@code -prof gc} (the default for {@code ./gradlew jmh}) and read {@code gc.alloc.rate.norm} for bytes allocated per tick.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FaultManagerBenchmark {
+
+    @Param({"1", "10", "25", "50"})
+    public int deviceCount;
+
+    @Param({"HEALTHY", "ALL_FAULTED"})
+    public SimFixtures.Scenario scenario;
+
+    @Param({"0", "20000"})
+    public long readLatencyNanos;
+
+    private FaultManager faultManager;
+
+    @Setup
+    public void setUp() {
+        faultManager = new FaultManager(new SimFixtures.NullLoggingStream());
+        SimFixtures.Kind[] kinds = SimFixtures.Kind.values();
+        for (int i = 0; i < deviceCount; i++) {
+            SimFixtures.Kind kind = kinds[i % kinds.length];
+            faultManager.register(SimFixtures.create(kind, kind.name().toLowerCase() + i, scenario, readLatencyNanos));
+        }
+        // settle into the steady state so transitions are not part of the measurement
+        faultManager.updateAll();
+    }
+
+    @Benchmark
+    public FaultManager tick() {
+        faultManager.updateAll();
+        return faultManager;
+    }
+}
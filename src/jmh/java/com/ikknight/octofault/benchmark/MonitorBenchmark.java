@@ -0,0 +1,49 @@
+package com.ikknight.octofault.benchmark;
+
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single {@link DeviceMonitor#update()} for each shipped monitor, against an instant simulated device so only the monitor's own work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonitorBenchmark {
+
+    @Param({"MOTOR", "SERVO", "IMU", "DISTANCE", "COLOR", "TOUCH", "VOLTAGE"})
+    public SimFixtures.Kind kind;
+
+    @Param({"HEALTHY", "ALL_FAULTED"})
+    public SimFixtures.Scenario scenario;
+
+    private DeviceMonitor<?> monitor;
+
+    @Setup
+    public void setUp() {
+        monitor = SimFixtures.create(kind, "device", scenario, 0);
+        monitor.update();
+    }
+
+    @Benchmark
+    public boolean update() {
+        monitor.update();
+        return monitor.isHealthy();
+    }
+}
@@ -0,0 +1,125 @@
+package com.ikknight.octofault.benchmark;
+
+import com.ikknight.octofault.sim.SimColorSensor;
+import com.ikknight.octofault.sim.SimDevice;
+import com.ikknight.octofault.sim.SimDistanceSensor;
+import com.ikknight.octofault.sim.SimIMU;
+import com.ikknight.octofault.sim.SimMotor;
+import com.ikknight.octofault.sim.SimServo;
+import com.ikknight.octofault.sim.SimTouchSensor;
+import com.ikknight.octofault.sim.SimVoltageSensor;
+import com.ikknight.octofault.utils.LoggingStream;
+import com.ikknight.octofault.utils.monitors.ColorSensorMonitor;
+import com.ikknight.octofault.utils.monitors.DcMotorMonitor;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+import com.ikknight.octofault.utils.monitors.DistanceSensorMonitor;
+import com.ikknight.octofault.utils.monitors.IMUMonitor;
+import com.ikknight.octofault.utils.monitors.ServoMonitor;
+import com.ikknight.octofault.utils.monitors.TouchSensorMonitor;
+import com.ikknight.octofault.utils.monitors.VoltageSensorMonitor;
+
+/**
+ * Builds simulated devices with their monitors for the benchmarks.
+ */
+final class SimFixtures {
+
+    /**
+     * Device kinds covered by the benchmarks, in the order a mixed robot cycles through them.
+     */
+    enum Kind {
+        MOTOR, SERVO, IMU, DISTANCE, COLOR, TOUCH, VOLTAGE
+    }
+
+    /**
+     * Whether devices read healthy values or values every monitor reports as a fault.
+     */
+    enum Scenario {
+        HEALTHY, ALL_FAULTED
+    }
+
+    private SimFixtures() {
+    }
+
+    /**
+     * Creates a simulated device of the given kind and a monitor watching it.
+     *
+     * @param kind Kind of device
+     * @param name Device and monitor name
+     * @param scenario Healthy or faulty readings
+     * @param readLatencyNanos Latency of each device read
+     * @return The monitor, its device is available through {@link DeviceMonitor#getDevice()}
+     */
+    static DeviceMonitor<?> create(Kind kind, String name, Scenario scenario, long readLatencyNanos) {
+        boolean faulted = scenario == Scenario.ALL_FAULTED;
+        SimDevice device;
+        DeviceMonitor<?> monitor;
+        switch (kind) {
+            case MOTOR: {
+                SimMotor motor = new SimMotor(name);
+                motor.simPower(0.5);
+                motor.simPosition(1000);
+                // stalled: powered, encoder not moving
+                motor.simVelocity(faulted ? 0.0 : 1200.0);
+                device = motor;
+                monitor = new DcMotorMonitor(name, motor);
+                break;
+            }
+            case SERVO: {
+                SimServo servo = new SimServo(name);
+                servo.simPosition(faulted ? 1.5 : 0.5);
+                device = servo;
+                monitor = new ServoMonitor(name, servo);
+                break;
+            }
+            case IMU: {
+                SimIMU imu = new SimIMU(name);
+                imu.simOrientation(faulted ? Double.NaN : 45.0, 0.0, 0.0);
+                device = imu;
+                monitor = new IMUMonitor(name, imu);
+                break;
+            }
+            case DISTANCE: {
+                SimDistanceSensor sensor = new SimDistanceSensor(name);
+                sensor.simDistance(faulted ? Double.NaN : 25.0);
+                device = sensor;
+                monitor = new DistanceSensorMonitor(name, sensor);
+                break;
+            }
+            case COLOR: {
+                SimColorSensor sensor = new SimColorSensor(name);
+                if (faulted) sensor.simColor(-1, -1, -1, -1);
+                device = sensor;
+                // polled every tick like the other kinds, so every benchmark tick does the same work
+                monitor = new ColorSensorMonitor(name, sensor, 0);
+                break;
+            }
+            case TOUCH: {
+                SimTouchSensor sensor = new SimTouchSensor(name);
+                sensor.simValue(faulted ? Double.NaN : 0.0);
+                device = sensor;
+                monitor = new TouchSensorMonitor(name, sensor);
+                break;
+            }
+            case VOLTAGE: {
+                SimVoltageSensor sensor = new SimVoltageSensor(name);
+                sensor.simVoltage(faulted ? 6.5 : 13.0);
+                device = sensor;
+                monitor = new VoltageSensorMonitor(name, sensor);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown device kind " + kind);
+        }
+        device.setReadLatencyNanos(readLatencyNanos);
+        return monitor;
+    }
+
+    /**
+     * Logging stream that discards everything, so benchmarks measure message building but not output.
+     */
+    static final class NullLoggingStream extends LoggingStream {
+        @Override
+        protected void write(LogLevel level, String message) {
+        }
+    }
+}
@@ -1,14 +1,33 @@
 package com.ikknight.octofault;
 
+import com.ikknight.octofault.core.BackgroundMonitor;
+import com.ikknight.octofault.core.BulkReadManager;
 import com.ikknight.octofault.core.FaultManager;
+import com.ikknight.octofault.core.HealthSnapshot;
+import com.ikknight.octofault.core.MonitorGroup;
 import com.ikknight.octofault.utils.DeviceRegistrator;
 import com.ikknight.octofault.utils.LoggingStream;
+import com.ikknight.octofault.utils.loggingstreams.AsyncLoggingStream;
+import com.ikknight.octofault.utils.loggingstreams.CompositeLoggingStream;
+import com.ikknight.octofault.utils.loggingstreams.FileLoggingStream;
 import com.ikknight.octofault.utils.loggingstreams.TelemetryLoggingStream;
+import com.ikknight.octofault.utils.monitors.DcMotorMonitor;
 import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+import com.ikknight.octofault.utils.monitors.VoltageSensorMonitor;
+import com.ikknight.octofault.utils.recorder.FlightRecorder;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerImpl;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerNotifier;
 import com.qualcomm.robotcore.hardware.HardwareDevice;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Main class for hardware fault detection and monitoring. Initialize after all devices are registered on the HardwareMap. Call {@link #update()} regularly in your main loop to monitor device health.
@@ -18,6 +37,9 @@ public class Octofault {
     LoggingStream loggingStream;
     FaultManager faultManager;
     DeviceRegistrator registrator;
+    BackgroundMonitor backgroundMonitor;
+    OpModeManagerImpl opModeManager;
+    OpModeManagerNotifier.Notifications opModeListener;
 
     /**
      * Creates Octofault with telemetry logging.
@@ -29,8 +51,7 @@ public class Octofault {
         this.hardwareMap = hardwareMap;
         this.loggingStream = new TelemetryLoggingStream(telemetry);
 
-        this.faultManager = new FaultManager();
-        this.faultManager.setLoggingStream(loggingStream);
+        this.faultManager = new FaultManager(loggingStream);
 
         registrator = new DeviceRegistrator(hardwareMap, faultManager) {
             @Override
@@ -50,8 +71,8 @@ public class Octofault {
     public Octofault(HardwareMap hardwareMap, LoggingStream loggingStream) {
         this.hardwareMap = hardwareMap;
         this.loggingStream = loggingStream;
-        this.faultManager = new FaultManager();
-        this.faultManager.setLoggingStream(loggingStream);
+        this.faultManager = new FaultManager(loggingStream);
+        closeLoggingOnStop();
         registrator = new DeviceRegistrator(hardwareMap, faultManager) {
             @Override
             public DeviceMonitor<?> registerCustomDevices(HardwareDevice device) {
@@ -70,6 +91,7 @@ public class Octofault {
     public Octofault(HardwareMap hardwareMap, FaultManager faultManager) {
         this.hardwareMap = hardwareMap;
         this.faultManager = faultManager;
+        closeLoggingOnStop();
         registrator = new DeviceRegistrator(hardwareMap, faultManager) {
             @Override
             public DeviceMonitor<?> registerCustomDevices(HardwareDevice device) {
@@ -90,8 +112,7 @@ public class Octofault {
         this.hardwareMap = hardwareMap;
         this.loggingStream = new TelemetryLoggingStream(telemetry);
 
-        this.faultManager = new FaultManager();
-        this.faultManager.setLoggingStream(loggingStream);
+        this.faultManager = new FaultManager(loggingStream);
         this.registrator = registrator;
     }
 
@@ -105,8 +126,8 @@ public class Octofault {
     public Octofault(HardwareMap hardwareMap, LoggingStream loggingStream, DeviceRegistrator registrator){
         this.hardwareMap = hardwareMap;
         this.loggingStream = loggingStream;
-        this.faultManager = new FaultManager();
-        this.faultManager.setLoggingStream(loggingStream);
+        this.faultManager = new FaultManager(loggingStream);
+        closeLoggingOnStop();
         this.registrator = registrator;
         registrator.registerAllDevices();
     }
@@ -121,16 +142,262 @@ public class Octofault {
     public Octofault(HardwareMap hardwareMap, FaultManager faultManager, DeviceRegistrator registrator){
         this.hardwareMap = hardwareMap;
         this.faultManager = faultManager;
+        closeLoggingOnStop();
         this.registrator = registrator;
     }
 
     /**
-     * Updates all device monitors and checks for faults. Call this method regularly in your main loop (e.g., inside OpMode's loop()).
+     * Updates all device monitors and checks for faults. Call this method regularly in your main loop (e.g., inside OpMode's loop()). Does nothing while background monitoring is running. Each update starts a new tick of the {@link FaultManager#getValueCache() value cache}; calling it at the top of the loop lets the rest of the loop reuse the values the monitors read.
      */
     public void update() {
-        long startTime = System.currentTimeMillis();
-        faultManager.updateAll();
-        faultManager.getLoggingStream().log(LoggingStream.LogLevel.INFO, "FaultManager took " + (System.currentTimeMillis() - startTime) + "ms to update (Tick Complete)");
+        update(0);
+    }
+
+    /**
+     * Updates the device monitors that are due within a per-tick time budget. Monitors that do not fit are round-robined into later ticks, see {@link FaultManager#getScheduler()} for overrun statistics.
+     *
+     * @param budgetMicros Time budget for this tick in microseconds, or 0 for no limit
+     */
+    public void update(long budgetMicros) {
+        if (isBackgroundMonitoring()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        faultManager.updateAll(budgetMicros);
+        LoggingStream stream = faultManager.getLoggingStream();
+        // checked before boxing the arguments, so a disabled INFO level costs nothing per tick;
+        // the status table only holds state that changes, so the timing line stays out of it
+        boolean statusTable = stream instanceof TelemetryLoggingStream && ((TelemetryLoggingStream) stream).isStatusTable();
+        if (stream != null && !statusTable && stream.isLoggable(LoggingStream.LogLevel.INFO)) {
+            double elapsedMs = (System.nanoTime() - startTime) / 1000 / 1000.0;
+            BulkReadManager bulkReads = faultManager.getBulkReadManager();
+            if (bulkReads != null) {
+                stream.log(LoggingStream.LogLevel.INFO, "FaultManager took {}ms to update (Tick Complete, {} bulk reads)", elapsedMs, bulkReads.getBulkReadsLastTick());
+            } else {
+                stream.log(LoggingStream.LogLevel.INFO, "FaultManager took {}ms to update (Tick Complete)", elapsedMs);
+            }
+        }
+        if (stream instanceof TelemetryLoggingStream) {
+            ((TelemetryLoggingStream) stream).flushIfDue();
+        }
+    }
+
+    /**
+     * Enables bulk-read-aware monitoring with Octofault owning the hub bulk caches. Every hub is switched to MANUAL caching and refreshed with one bulk read per {@link #update()}. Do not use this if your OpMode clears the bulk caches itself; use {@link #enableBulkReads(BulkReadManager.Mode)} with {@link BulkReadManager.Mode#SHARED} instead.
+     */
+    public void enableBulkReads() {
+        enableBulkReads(BulkReadManager.Mode.MANAGED);
+    }
+
+    /**
+     * Enables bulk-read-aware monitoring.
+     *
+     * @param mode Whether Octofault or user code owns the hub bulk caches
+     */
+    public void enableBulkReads(BulkReadManager.Mode mode) {
+        faultManager.setBulkReadManager(new BulkReadManager(hardwareMap, mode));
+    }
+
+    /**
+     * Disables bulk-read-aware monitoring and restores the hubs' previous bulk caching modes.
+     */
+    public void disableBulkReads() {
+        BulkReadManager bulkReads = faultManager.getBulkReadManager();
+        if (bulkReads != null) {
+            bulkReads.restoreCachingModes();
+            faultManager.setBulkReadManager(null);
+        }
+    }
+
+    /**
+     * Correlates voltage dips with motor load: every registered {@link VoltageSensorMonitor} is given every registered {@link DcMotorMonitor}, so dips without load are reported separately and {@link VoltageSensorMonitor#getLoadSensitivity()} is estimated. Motor power comes from the motors' own samples, so this adds no hardware reads. Call again after registering more devices.
+     */
+    public void enableLoadCorrelation() {
+        List<DcMotorMonitor> motors = new ArrayList<>();
+        for (DeviceMonitor<?> monitor : faultManager.getAllMonitors()) {
+            if (monitor instanceof DcMotorMonitor) {
+                motors.add((DcMotorMonitor) monitor);
+            }
+        }
+        DcMotorMonitor[] motorArray = motors.toArray(new DcMotorMonitor[0]);
+        for (DeviceMonitor<?> monitor : faultManager.getAllMonitors()) {
+            if (monitor instanceof VoltageSensorMonitor) {
+                ((VoltageSensorMonitor) monitor).setMotorMonitors(motorArray);
+            }
+        }
+    }
+
+    /**
+     * Replaces the per-message telemetry lines with a status table: one row per monitor showing OK or its latest fault, and one row per log level with its latest message. Only rows that changed are sent, at most {@code maxRateHz} times per second, so telemetry traffic follows fault transitions instead of the loop rate. The per-tick timing line is not logged while the table is on; read {@link FaultManager#getTickLatency()} instead. Needs the default {@link TelemetryLoggingStream}.
+     *
+     * @param maxRateHz Maximum number of telemetry flushes per second, 0 for no limit
+     */
+    public void enableStatusTelemetry(double maxRateHz) {
+        if (!(loggingStream instanceof TelemetryLoggingStream)) {
+            if (faultManager.getLoggingStream() != null) {
+                faultManager.getLoggingStream().log(LoggingStream.LogLevel.WARNING, "Status telemetry needs a TelemetryLoggingStream");
+            }
+            return;
+        }
+        TelemetryLoggingStream stream = (TelemetryLoggingStream) loggingStream;
+        if (!stream.isStatusTable()) {
+            faultManager.addFaultListener(stream);
+        }
+        stream.enableStatusTable(maxRateHz);
+        for (DeviceMonitor<?> monitor : faultManager.getAllMonitors()) {
+            stream.setStatus(monitor.getName(), monitor.isHealthy() ? "OK" : "FAULTY");
+        }
+    }
+
+    /**
+     * Updates the monitors of each hub on their own thread, so hardware reads on the Control Hub and Expansion Hub overlap instead of adding up. Per-hub timing is available from {@link FaultManager#getGroups()}.
+     */
+    public void enableParallelUpdates() {
+        faultManager.setParallelUpdates(MonitorGroup.BY_HUB);
+    }
+
+    /**
+     * Updates every monitor on the calling thread again.
+     */
+    public void disableParallelUpdates() {
+        faultManager.setParallelUpdates(null);
+    }
+
+    /**
+     * Starts recording every monitor's readings and fault state to {@link FlightRecorder#DEFAULT_FILE}, replacing the previous recording. Failures are logged and monitoring continues without recording.
+     */
+    public void enableFlightRecorder() {
+        try {
+            enableFlightRecorder(FlightRecorder.DEFAULT_FILE, FlightRecorder.DEFAULT_CAPACITY);
+        } catch (IOException e) {
+            faultManager.getLoggingStream().log(LoggingStream.LogLevel.ERROR, "Could not start flight recorder: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts recording every monitor's readings and fault state, replacing any previous recording in the file.
+     *
+     * @param file File to record into
+     * @param capacity Number of records kept before the oldest are overwritten
+     * @throws IOException If the file cannot be created or mapped
+     */
+    public void enableFlightRecorder(File file, int capacity) throws IOException {
+        disableFlightRecorder();
+        faultManager.setFlightRecorder(new FlightRecorder(file, capacity));
+    }
+
+    /**
+     * Stops recording and flushes the recording to storage.
+     */
+    public void disableFlightRecorder() {
+        FlightRecorder recorder = faultManager.getFlightRecorder();
+        if (recorder == null) return;
+        faultManager.setFlightRecorder(null);
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            faultManager.getLoggingStream().log(LoggingStream.LogLevel.ERROR, "Could not close flight recorder: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts monitoring on a background thread instead of the OpMode loop. The thread is stopped automatically when the current OpMode stops; read health with {@link #getHealthSnapshot()}.
+     *
+     * @param rateHz Ticks per second
+     */
+    public void startBackgroundMonitoring(double rateHz) {
+        startBackgroundMonitoring(rateHz, 0);
+    }
+
+    /**
+     * Starts monitoring on a background thread instead of the OpMode loop, with a per-tick time budget. The thread is stopped automatically when the current OpMode stops.
+     *
+     * @param rateHz Ticks per second
+     * @param budgetMicros Time budget per tick in microseconds, or 0 for no limit
+     */
+    public synchronized void startBackgroundMonitoring(double rateHz, long budgetMicros) {
+        stopBackgroundMonitoring();
+        backgroundMonitor = new BackgroundMonitor(faultManager, rateHz, budgetMicros);
+        registerOpModeListener();
+        backgroundMonitor.start();
+    }
+
+    /**
+     * Stops background monitoring. The last health snapshot stays readable.
+     */
+    public synchronized void stopBackgroundMonitoring() {
+        if (backgroundMonitor != null) {
+            backgroundMonitor.stop();
+        }
+        // still needed to close the logging stream when the OpMode stops
+        if (opModeManager != null && !ownsResources(faultManager.getLoggingStream())) {
+            opModeManager.unregisterListener(opModeListener);
+            opModeManager = null;
+            opModeListener = null;
+        }
+    }
+
+    /**
+     * Checks if background monitoring is running.
+     *
+     * @return True if monitors are being updated on the background thread
+     */
+    public boolean isBackgroundMonitoring() {
+        BackgroundMonitor monitor = backgroundMonitor;
+        return monitor != null && monitor.isRunning();
+    }
+
+    /**
+     * Gets the latest health snapshot published by background monitoring. Lock-free and safe to call every loop.
+     *
+     * @return The latest snapshot, or {@link HealthSnapshot#EMPTY} if background monitoring was never started
+     */
+    public HealthSnapshot getHealthSnapshot() {
+        BackgroundMonitor monitor = backgroundMonitor;
+        return monitor == null ? HealthSnapshot.EMPTY : monitor.getSnapshot();
+    }
+
+    // these hold worker threads or files that would otherwise outlive the OpMode
+    private static boolean ownsResources(LoggingStream stream) {
+        return stream instanceof CompositeLoggingStream || stream instanceof AsyncLoggingStream || stream instanceof FileLoggingStream;
+    }
+
+    private synchronized void closeLoggingOnStop() {
+        if (ownsResources(faultManager.getLoggingStream())) {
+            registerOpModeListener();
+        }
+    }
+
+    private void registerOpModeListener() {
+        if (opModeListener != null) return;
+        try {
+            opModeManager = OpModeManagerImpl.getOpModeManagerOfActivity(AppUtil.getInstance().getActivity());
+        } catch (RuntimeException e) {
+            opModeManager = null;
+        }
+        if (opModeManager == null) return; // not running on a robot controller, caller must stop the thread
+
+        opModeListener = new OpModeManagerNotifier.Notifications() {
+            @Override
+            public void onOpModePreInit(OpMode opMode) {}
+
+            @Override
+            public void onOpModePreStart(OpMode opMode) {}
+
+            @Override
+            public void onOpModePostStop(OpMode opMode) {
+                // only stop the thread here, unregistering while the notifier is dispatching is not safe
+                BackgroundMonitor monitor = backgroundMonitor;
+                if (monitor != null) {
+                    monitor.stop();
+                }
+                LoggingStream stream = faultManager.getLoggingStream();
+                if (ownsResources(stream)) {
+                    stream.close();
+                }
+            }
+        };
+        opModeManager.registerListener(opModeListener);
     }
 
     /**
@@ -0,0 +1,118 @@
+package com.ikknight.octofault.core;
+
+import com.ikknight.octofault.utils.LoggingStream;
+import com.ikknight.octofault.utils.loggingstreams.TelemetryLoggingStream;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a {@link FaultManager} on its own thread at a fixed rate, taking every monitor's hardware reads off the OpMode loop. After each tick an immutable {@link HealthSnapshot} is published through an atomic reference, so the OpMode thread reads health without locks or waiting.
+ *
+ * @see com.ikknight.octofault.Octofault#startBackgroundMonitoring(double)
+ */
+public class BackgroundMonitor {
+
+    private final FaultManager faultManager;
+    private final long periodNanos;
+    private final long budgetMicros;
+    private final AtomicReference<HealthSnapshot> snapshot = new AtomicReference<>(HealthSnapshot.EMPTY);
+
+    private volatile boolean running = false;
+    private Thread thread;
+    private long tick = 0;
+
+    /**
+     * Creates a background monitor. Call {@link #start()} to begin monitoring.
+     *
+     * @param faultManager Fault manager to run
+     * @param rateHz Ticks per second
+     * @param budgetMicros Time budget per tick in microseconds, or 0 for no limit
+     */
+    public BackgroundMonitor(FaultManager faultManager, double rateHz, long budgetMicros) {
+        if (rateHz <= 0) {
+            throw new IllegalArgumentException("rateHz must be positive");
+        }
+        this.faultManager = faultManager;
+        this.periodNanos = (long) (1_000_000_000L / rateHz);
+        this.budgetMicros = budgetMicros;
+    }
+
+    /**
+     * Starts the monitoring thread. Does nothing if already running.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "Octofault-Monitor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the monitoring thread and waits for the current tick to finish. The last published snapshot stays readable.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        thread.interrupt();
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join(periodNanos / 1_000_000L + 500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        thread = null;
+    }
+
+    /**
+     * Checks if the monitoring thread is running.
+     *
+     * @return True if running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets the most recently published health snapshot. Never blocks.
+     *
+     * @return The latest snapshot, or {@link HealthSnapshot#EMPTY} before the first tick
+     */
+    public HealthSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime();
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                HealthSnapshot next;
+                synchronized (faultManager) {
+                    faultManager.updateAll(budgetMicros);
+                    next = HealthSnapshot.capture(faultManager.getAllMonitors(), ++tick);
+                }
+                snapshot.set(next);
+                LoggingStream loggingStream = faultManager.getLoggingStream();
+                if (loggingStream instanceof TelemetryLoggingStream) {
+                    ((TelemetryLoggingStream) loggingStream).flushIfDue();
+                }
+            } catch (RuntimeException e) {
+                LoggingStream loggingStream = faultManager.getLoggingStream();
+                if (loggingStream != null) {
+                    loggingStream.log(LoggingStream.LogLevel.ERROR, "Background monitoring tick failed: " + e);
+                }
+            }
+
+            nextTick += periodNanos;
+            long wait = nextTick - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            } else {
+                // fell behind, don't try to catch up with a burst of ticks
+                nextTick = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ikknight.octofault.core;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import java.util.List;
+
+/**
+ * Coordinates Lynx bulk reads so that every monitor on a hub is served from one bulk transaction per tick. Encoder positions, velocities, busy flags, digital channels and analog inputs are all part of the bulk data, so monitors reading them through the normal SDK calls hit the cache instead of the hub.
+ *
+ * @see FaultManager#setBulkReadManager(BulkReadManager)
+ */
+public class BulkReadManager {
+
+    /**
+     * Who owns the bulk cache of the hubs.
+     */
+    public enum Mode {
+        /**
+         * Octofault switches every hub to {@link LynxModule.BulkCachingMode#MANUAL} and issues exactly one bulk read per hub at the start of each tick.
+         */
+        MANAGED,
+        /**
+         * User code owns the bulk cache (AUTO or MANUAL). Octofault never clears it and only reuses whatever data the OpMode already fetched this loop.
+         */
+        SHARED
+    }
+
+    private final LynxModule[] hubs;
+    private final LynxModule.BulkCachingMode[] previousModes;
+    private final Mode mode;
+
+    private int bulkReadsLastTick = 0;
+    private long totalBulkReads = 0;
+
+    /**
+     * Creates a bulk read manager for every Lynx hub in the hardware map.
+     *
+     * @param hardwareMap Hardware map containing the Control Hub and any Expansion Hubs
+     * @param mode Whether Octofault or user code owns the bulk cache
+     */
+    public BulkReadManager(HardwareMap hardwareMap, Mode mode) {
+        List<LynxModule> modules = hardwareMap.getAll(LynxModule.class);
+        this.hubs = modules.toArray(new LynxModule[0]);
+        this.previousModes = new LynxModule.BulkCachingMode[hubs.length];
+        this.mode = mode;
+
+        for (int i = 0; i < hubs.length; i++) {
+            previousModes[i] = hubs[i].getBulkCachingMode();
+            if (mode == Mode.MANAGED) {
+                hubs[i].setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
+            }
+        }
+    }
+
+    /**
+     * Refreshes the bulk cache for a new tick. In {@link Mode#MANAGED} this clears every hub's cache and immediately fetches fresh bulk data, so the bulk data of each hub costs exactly one transaction no matter how many monitors read from it; reads it does not serve, like getPower(), still go to the hub. In {@link Mode#SHARED} nothing is issued.
+     */
+    public void beginTick() {
+        int bulkReads = 0;
+        if (mode == Mode.MANAGED) {
+            for (LynxModule hub : hubs) {
+                hub.clearBulkCache();
+                hub.getBulkData();
+                bulkReads++;
+            }
+        }
+        bulkReadsLastTick = bulkReads;
+        totalBulkReads += bulkReads;
+    }
+
+    /**
+     * Restores the bulk caching mode each hub had before this manager took it over.
+     */
+    public void restoreCachingModes() {
+        for (int i = 0; i < hubs.length; i++) {
+            hubs[i].setBulkCachingMode(previousModes[i]);
+        }
+    }
+
+    /**
+     * Gets the number of bulk reads Octofault issued during the last tick. Commands the bulk data does not serve, such as each motor's getPower(), are not counted.
+     *
+     * @return Bulk reads in the last tick
+     */
+    public int getBulkReadsLastTick() {
+        return bulkReadsLastTick;
+    }
+
+    /**
+     * Gets the number of bulk reads Octofault issued since creation.
+     *
+     * @return Total bulk reads
+     */
+    public long getTotalBulkReads() {
+        return totalBulkReads;
+    }
+
+    /**
+     * Gets the number of hubs managed.
+     *
+     * @return Hub count
+     */
+    public int getHubCount() {
+        return hubs.length;
+    }
+
+    /**
+     * Gets the bulk cache ownership mode.
+     *
+     * @return The mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+}
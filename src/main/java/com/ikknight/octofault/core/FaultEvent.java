@@ -0,0 +1,151 @@
+package com.ikknight.octofault.core;
+
+import com.ikknight.octofault.utils.LoggingStream;
+import com.ikknight.octofault.utils.monitors.FaultCode;
+import com.ikknight.octofault.utils.monitors.FaultRecord;
+
+/**
+ * Immutable fault transition published on a {@link FaultEventBus}: a fault raised by a monitor, or a monitor recovering. Unlike the {@link FaultRecord}s passed to {@link FaultListener}s, events are never reused and can be kept or read from any thread.
+ */
+public final class FaultEvent {
+
+    /**
+     * The kind of transition.
+     */
+    public enum Kind {
+        /** A monitor reported a fault that was not active before. */
+        RAISED,
+        /** A faulty monitor became healthy again. */
+        CLEARED
+    }
+
+    private final Kind kind;
+    private final String monitorName;
+    private final String deviceType;
+    private final LoggingStream.LogLevel severity;
+    private final long timestampNanos;
+    private final FaultCode code;
+    private final double value;
+    private final String detail;
+    private final long faultyForNanos;
+
+    private FaultEvent(Kind kind, String monitorName, String deviceType, LoggingStream.LogLevel severity, long timestampNanos, FaultCode code, double value, String detail, long faultyForNanos) {
+        this.kind = kind;
+        this.monitorName = monitorName;
+        this.deviceType = deviceType;
+        this.severity = severity;
+        this.timestampNanos = timestampNanos;
+        this.code = code;
+        this.value = value;
+        this.detail = detail;
+        this.faultyForNanos = faultyForNanos;
+    }
+
+    static FaultEvent raised(String deviceType, FaultRecord fault) {
+        return new FaultEvent(Kind.RAISED, fault.getMonitorName(), deviceType, fault.getSeverity(), fault.getFirstSeenNanos(),
+                fault.getCode(), fault.hasValue() ? fault.getValue() : Double.NaN, fault.getDetail(), 0);
+    }
+
+    static FaultEvent cleared(String monitorName, String deviceType, LoggingStream.LogLevel severity, long timestampNanos, long faultyForNanos) {
+        return new FaultEvent(Kind.CLEARED, monitorName, deviceType, severity, timestampNanos, null, Double.NaN, null, faultyForNanos);
+    }
+
+    /**
+     * Gets the kind of transition.
+     *
+     * @return Raised or cleared
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the name of the monitor.
+     *
+     * @return Device name from hardware map
+     */
+    public String getMonitorName() {
+        return monitorName;
+    }
+
+    /**
+     * Gets the device type of the monitor.
+     *
+     * @return Device type identifier
+     */
+    public String getDeviceType() {
+        return deviceType;
+    }
+
+    /**
+     * Gets the severity: of the fault when raised, of the monitor's most severe fault before recovering when cleared.
+     *
+     * @return Severity level
+     */
+    public LoggingStream.LogLevel getSeverity() {
+        return severity;
+    }
+
+    /**
+     * Gets when the transition happened.
+     *
+     * @return Timestamp in {@link com.ikknight.octofault.utils.Clock#nanoTime()} time
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * Gets the fault raised.
+     *
+     * @return Fault code, null for cleared events
+     */
+    public FaultCode getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the value that triggered the fault.
+     *
+     * @return The value, NaN if none or for cleared events
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the fault detail text.
+     *
+     * @return Detail, or null if none
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Gets how long the monitor was faulty before recovering.
+     *
+     * @return Duration in nanoseconds, 0 for raised events
+     */
+    public long getFaultyForNanos() {
+        return faultyForNanos;
+    }
+
+    @Override
+    public String toString() {
+        if (kind == Kind.CLEARED) {
+            return monitorName + " recovered after " + (faultyForNanos / 1_000_000L) + "ms";
+        }
+        StringBuilder builder = new StringBuilder().append(severity).append(": ");
+        if (code == FaultCode.CUSTOM) {
+            return builder.append(detail).toString();
+        }
+        builder.append(monitorName).append(": ").append(code.getDescription());
+        if (detail != null) {
+            builder.append(": ").append(detail);
+        } else if (!Double.isNaN(value)) {
+            builder.append(": ").append(value);
+        }
+        return builder.toString();
+    }
+}
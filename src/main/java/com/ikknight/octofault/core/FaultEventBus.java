@@ -0,0 +1,260 @@
+package com.ikknight.octofault.core;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers {@link FaultEvent}s from the thread updating a {@link FaultManager} to any number of other threads. Events go into a single-producer, multi-consumer broadcast ring: publishing is a slot write and a counter increment, never waits and never locks, and each {@link Subscription} reads at its own pace with its own cursor. A subscriber falling more than the ring's capacity behind loses the oldest events and counts them as dropped instead of slowing the monitoring tick.
+ * <p>
+ * Read a subscription from one thread, either by polling it from a loop ({@link Subscription#poll()}, {@link Subscription#drain(Listener)}), by blocking on it ({@link Subscription#take(long)}), or let {@link #subscribe(Listener)} run a dispatch thread calling a listener.
+ *
+ * @see FaultManager#getEventBus()
+ */
+public class FaultEventBus {
+
+    /**
+     * Receives fault events on a subscriber's thread.
+     */
+    public interface Listener {
+        /**
+         * Called for each event, in publish order.
+         *
+         * @param event The event
+         */
+        void onFaultEvent(FaultEvent event);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<FaultEvent> slots;
+    // sequence of the next event to publish; events below it are readable
+    private final AtomicLong published = new AtomicLong();
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a bus keeping the last 255 events.
+     */
+    public FaultEventBus() {
+        this(255);
+    }
+
+    /**
+     * Creates a bus.
+     *
+     * @param minCapacity Events a subscriber may fall behind before losing any, rounded up to one less than a power of two
+     */
+    public FaultEventBus(int minCapacity) {
+        if (minCapacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        // one slot is kept free so a reader never accepts a slot the producer is overwriting
+        int slotCount = Integer.highestOneBit(Math.max(1, minCapacity)) << 1;
+        this.capacity = slotCount - 1;
+        this.mask = slotCount - 1;
+        this.slots = new AtomicReferenceArray<>(slotCount);
+    }
+
+    /**
+     * Publishes an event to every subscription. Must only be called from one thread at a time; the {@link FaultManager} publishes under its lock.
+     *
+     * @param event The event
+     */
+    public void publish(FaultEvent event) {
+        long sequence = published.get();
+        slots.set((int) sequence & mask, event);
+        published.set(sequence + 1);
+        for (Subscription subscription : subscriptions) {
+            Thread waiter = subscription.waiter;
+            if (waiter != null) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+
+    /**
+     * Checks whether anyone is subscribed, so publishers can skip creating events nobody reads.
+     *
+     * @return True if there is at least one open subscription
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Subscribes to events published from now on, to be read by the caller.
+     *
+     * @return The subscription, close it when done
+     */
+    public Subscription subscribe() {
+        Subscription subscription = new Subscription();
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Subscribes a listener called on a new daemon thread for every event published from now on. Closing the subscription stops the thread.
+     *
+     * @param listener The listener; exceptions it throws are counted as dropped events
+     * @return The subscription
+     */
+    public Subscription subscribe(Listener listener) {
+        Subscription subscription = subscribe();
+        Thread dispatcher = new Thread(() -> subscription.dispatch(listener), "Octofault-FaultEvents");
+        dispatcher.setDaemon(true);
+        subscription.dispatcher = dispatcher;
+        dispatcher.start();
+        return subscription;
+    }
+
+    /**
+     * Gets the number of events a subscriber may fall behind before losing any.
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of events published so far.
+     *
+     * @return Published event count
+     */
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    /**
+     * One reader of the bus. Each subscription sees every event published after it was created, unless it falls behind by more than the capacity.
+     */
+    public final class Subscription {
+        private long next = published.get();
+        private final AtomicLong dropped = new AtomicLong();
+        volatile Thread waiter;
+        volatile Thread dispatcher;
+        private volatile boolean closed = false;
+
+        private Subscription() {
+        }
+
+        /**
+         * Takes the next event without waiting.
+         *
+         * @return The next event, or null if there is none
+         */
+        public FaultEvent poll() {
+            while (true) {
+                long head = published.get();
+                if (next >= head) return null;
+                if (head - next > capacity) {
+                    dropped.addAndGet(head - next - capacity);
+                    next = head - capacity;
+                }
+                FaultEvent event = slots.get((int) next & mask);
+                // the producer may have lapped us while we read the slot
+                if (published.get() - next > capacity) continue;
+                next++;
+                return event;
+            }
+        }
+
+        /**
+         * Takes the next event, waiting for one to be published.
+         *
+         * @param timeoutMs Maximum time to wait in milliseconds
+         * @return The next event, or null if none was published in time or the subscription was closed
+         * @throws InterruptedException If the thread was interrupted while waiting
+         */
+        public FaultEvent take(long timeoutMs) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (!closed) {
+                FaultEvent event = poll();
+                if (event != null) return event;
+                waiter = Thread.currentThread();
+                try {
+                    // re-check after announcing ourselves so a publish in between is not missed
+                    event = poll();
+                    if (event != null) return event;
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) return null;
+                    LockSupport.parkNanos(this, remaining);
+                } finally {
+                    waiter = null;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Hands every available event to a listener without waiting, for polling from an OpMode loop.
+         *
+         * @param listener The listener
+         * @return Number of events delivered
+         */
+        public int drain(Listener listener) {
+            int count = 0;
+            FaultEvent event;
+            while ((event = poll()) != null) {
+                listener.onFaultEvent(event);
+                count++;
+            }
+            return count;
+        }
+
+        private void dispatch(Listener listener) {
+            while (!closed) {
+                try {
+                    FaultEvent event = take(1000);
+                    if (event != null) {
+                        listener.onFaultEvent(event);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    // a broken listener must not kill the dispatcher
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * Gets the number of events this subscription lost by falling behind, or that its listener failed on.
+         *
+         * @return Dropped event count
+         */
+        public long getDroppedCount() {
+            return dropped.get();
+        }
+
+        /**
+         * Gets the number of published events not read yet, capped at the capacity.
+         *
+         * @return Pending event count
+         */
+        public int getPendingCount() {
+            return (int) Math.min(capacity, Math.max(0, published.get() - next));
+        }
+
+        /**
+         * Unsubscribes, wakes a waiting reader and stops the dispatch thread if there is one.
+         */
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+            Thread thread = dispatcher;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+            Thread waiting = waiter;
+            if (waiting != null) {
+                LockSupport.unpark(waiting);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ikknight.octofault.core;
+
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+import com.ikknight.octofault.utils.monitors.FaultRecord;
+
+/**
+ * Receives fault state transitions from a {@link FaultManager}. Callbacks run on the thread that updates the manager, only when a monitor's fault state changes, so they are not called every tick while a fault is stable. Records passed in are reused by the monitor; copy them with {@link FaultRecord#copy()} to keep them.
+ *
+ * @see FaultManager#addFaultListener(FaultListener)
+ */
+public interface FaultListener {
+
+    /**
+     * Called when a monitor reports a fault that was not active before.
+     *
+     * @param monitor The monitor that raised the fault
+     * @param fault The newly raised fault, only valid during the call
+     */
+    void onFaultRaised(DeviceMonitor<?> monitor, FaultRecord fault);
+
+    /**
+     * Called when a faulty monitor becomes healthy again.
+     *
+     * @param monitor The monitor that recovered
+     * @param faultyForNanos How long the monitor was faulty
+     */
+    void onFaultCleared(DeviceMonitor<?> monitor, long faultyForNanos);
+
+    /**
+     * Called periodically for every monitor that is still faulty, at the manager's digest interval.
+     *
+     * @param monitor The monitor that is still faulty
+     * @param faultyForNanos How long the monitor has been faulty
+     */
+    default void onFaultDigest(DeviceMonitor<?> monitor, long faultyForNanos) {
+    }
+}
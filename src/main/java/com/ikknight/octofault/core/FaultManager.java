@@ -1,14 +1,25 @@
 package com.ikknight.octofault.core;
 
+import com.ikknight.octofault.utils.Clock;
+import com.ikknight.octofault.utils.DeviceValueCache;
+import com.ikknight.octofault.utils.LatencyHistogram;
 import com.ikknight.octofault.utils.LoggingStream;
 import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+import com.ikknight.octofault.utils.monitors.FaultRecord;
+import com.ikknight.octofault.utils.recorder.FlightRecorder;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Central manager for device monitoring and fault handling. Manages a collection of device monitors and coordinates fault logging through a configurable logging stream.
+ * Faults are reported on transitions only, to the logging stream, {@link FaultListener}s and the {@link FaultEventBus}.
  *
  * @see DeviceMonitor
  * @see LoggingStream
@@ -16,57 +27,407 @@ import java.util.Map;
 public class FaultManager {
 
     private final Map<String, DeviceMonitor<?>> monitors = new HashMap<>();
+    // immutable copies republished under the lock whenever the maps change, for readers on other threads
+    private volatile Collection<DeviceMonitor<?>> monitorView = Collections.emptyList();
+    private volatile Map<String, LatencyHistogram> typeLatencyView = Collections.emptyMap();
     private LoggingStream loggingStream;
+    private BulkReadManager bulkReadManager;
+    private final MonitorGroup mainGroup = new MonitorGroup("main");
+    private final MonitorScheduler scheduler = mainGroup.scheduler;
+    private final List<MonitorGroup> groups = new ArrayList<>(Collections.singletonList(mainGroup));
+    private MonitorGroup.Classifier groupClassifier;
+    private final Map<DeviceMonitor<?>, MonitorState> states = new IdentityHashMap<>();
+    private final List<FaultListener> listeners = new ArrayList<>();
+    private long digestIntervalMs = 5000;
+    private long lastDigestNanos = Clock.nanoTime();
+    private final StringBuilder messageBuilder = new StringBuilder();
+    private FlightRecorder flightRecorder;
+    private final Map<String, LatencyHistogram> typeLatencies = new HashMap<>();
+    private final LatencyHistogram tickLatency = new LatencyHistogram();
+    private final HealthIndex healthIndex = new HealthIndex();
+    private final FaultEventBus eventBus = new FaultEventBus();
+    private final DeviceValueCache valueCache = new DeviceValueCache();
 
     /**
-     * Registers a device monitor with the fault manager.
+     * Creates a fault manager without a logging stream. Faults are still tracked, but not logged.
+     */
+    public FaultManager() {
+    }
+
+    /**
+     * Creates a fault manager that logs faults to the given stream.
+     *
+     * @param loggingStream The logging stream to use for fault reporting
+     */
+    public FaultManager(LoggingStream loggingStream) {
+        this.loggingStream = loggingStream;
+    }
+
+    /**
+     * Registers a device monitor with the fault manager. Registration synchronizes on the manager, so monitors can be added while a {@link BackgroundMonitor} is running.
      *
      * @param monitor The device monitor to register
      */
-    public void register(DeviceMonitor<?> monitor){
-        monitors.put(monitor.getName(), monitor);
+    public synchronized void register(DeviceMonitor<?> monitor){
+        DeviceMonitor<?> previous = monitors.put(monitor.getName(), monitor);
+        if (previous != null) {
+            unregister(previous);
+        }
+        MonitorGroup group = groupOf(monitor);
+        group.scheduler.add(monitor);
+        monitor.setValueCache(valueCache);
+        LatencyHistogram typeLatency = typeLatencies.get(monitor.getDeviceType());
+        if (typeLatency == null) {
+            typeLatency = new LatencyHistogram();
+            typeLatencies.put(monitor.getDeviceType(), typeLatency);
+            typeLatencyView = Collections.unmodifiableMap(new HashMap<>(typeLatencies));
+        }
+        MonitorState state = new MonitorState(monitor, typeLatency);
+        state.group = group;
+        if (flightRecorder != null) {
+            state.recorderId = flightRecorder.register(monitor);
+        }
+        states.put(monitor, state);
+        publishMonitors();
+    }
+
+    private void publishMonitors() {
+        monitorView = Collections.unmodifiableList(new ArrayList<>(monitors.values()));
+    }
+
+    private void unregister(DeviceMonitor<?> monitor) {
+        MonitorState state = states.remove(monitor);
+        if (state != null) {
+            state.group.scheduler.remove(monitor);
+        }
+        healthIndex.remove(state);
+    }
+
+    private MonitorGroup groupOf(DeviceMonitor<?> monitor) {
+        String key = groupClassifier == null ? null : groupClassifier.groupOf(monitor);
+        if (key == null) return mainGroup;
+        for (int i = 0; i < groups.size(); i++) {
+            if (groups.get(i).getKey().equals(key)) return groups.get(i);
+        }
+        MonitorGroup group = new MonitorGroup(key);
+        groups.add(group);
+        return group;
+    }
+
+    /**
+     * Splits the monitors into groups updated in parallel, one thread per group, so that slow reads on one hub do not wait for reads on another. The calling thread updates monitors the classifier puts in no group and joins the rest before processing faults, so listeners, logging and the event bus still run on the calling thread. The time budget of {@link #updateAll(long)} applies to each group separately. Worker threads are started on the first tick and exit after a few idle seconds.
+     * Monitors in different groups are updated at the same time: user monitors sharing state between devices must synchronize it, built-in monitors only read other monitors' last samples.
+     *
+     * @param classifier How to group monitors, for example {@link MonitorGroup#BY_HUB}, or null to update every monitor on the calling thread
+     */
+    public synchronized void setParallelUpdates(MonitorGroup.Classifier classifier) {
+        this.groupClassifier = classifier;
+        for (int i = 0; i < groups.size(); i++) {
+            groups.get(i).scheduler.clear();
+        }
+        groups.clear();
+        groups.add(mainGroup);
+        for (MonitorState state : states.values()) {
+            state.group = groupOf(state.monitor);
+            state.group.scheduler.add(state.monitor);
+        }
+    }
+
+    /**
+     * Checks whether monitors are updated in parallel groups.
+     *
+     * @return True if a group classifier is set
+     */
+    public synchronized boolean isParallelUpdates() {
+        return groupClassifier != null;
+    }
+
+    /**
+     * Gets the groups monitors are updated in, with their own scheduler and tick timing. The first group is updated on the calling thread.
+     *
+     * @return Read-only list of groups, only the main group unless parallel updates are enabled
+     */
+    public synchronized List<MonitorGroup> getGroups() {
+        return Collections.unmodifiableList(new ArrayList<>(groups));
     }
 
     /**
      * Updates all registered monitors and logs any detected faults.
      */
     public void updateAll(){
-        for (DeviceMonitor<?> monitor : monitors.values()){
-            monitor.update();
-            if (!monitor.isHealthy() && loggingStream != null){
-                loggingStream.log(monitor.getName() + " is faulty: " + monitor.getFaultReasons().toString()); // [FaultA, FaultB, FaultC, ...]
+        updateAll(0);
+    }
+
+    /**
+     * Updates the monitors that are due, within a time budget, and logs any detected faults. Monitors that are due but do not fit in the budget are updated first on the next call.
+     * Faults are logged and passed to listeners on transitions only: once when raised, once when cleared, and as a periodic {@link #setDigestIntervalMs(long) digest} while they stay active. Each monitor update and the whole tick are timed, see {@link #getLatency(String)} and {@link #getTickLatency()}.
+     *
+     * @param budgetMicros Time budget for this tick in microseconds, or 0 for no limit
+     * @see MonitorScheduler
+     */
+    public synchronized void updateAll(long budgetMicros){
+        long start = System.nanoTime();
+        valueCache.beginTick();
+        if (bulkReadManager != null) {
+            bulkReadManager.beginTick();
+        }
+        runGroups(budgetMicros);
+        long now = Clock.nanoTime();
+        for (int g = 0; g < groups.size(); g++) {
+            MonitorScheduler groupScheduler = groups.get(g).scheduler;
+            for (int i = 0; i < groupScheduler.getUpdatedCount(); i++){
+                MonitorState state = states.get(groupScheduler.getUpdated(i));
+                long updateNanos = groupScheduler.getUpdateNanos(i);
+                state.latency.record(updateNanos);
+                state.typeLatency.record(updateNanos);
+                processTransitions(state);
+                if (flightRecorder != null) {
+                    flightRecorder.record(state.recorderId, state.monitor, now);
+                }
             }
         }
+
+        if (digestIntervalMs > 0 && now - lastDigestNanos >= digestIntervalMs * 1_000_000L) {
+            lastDigestNanos = now;
+            emitDigest(now);
+        }
+        tickLatency.record(System.nanoTime() - start);
+    }
+
+    private void runGroups(long budgetMicros) {
+        if (groups.size() == 1) {
+            mainGroup.runTick(budgetMicros);
+            return;
+        }
+        Thread self = Thread.currentThread();
+        for (int g = 1; g < groups.size(); g++) {
+            groups.get(g).post(budgetMicros, self);
+        }
+        Throwable failure = null;
+        try {
+            mainGroup.runTick(budgetMicros);
+        } catch (Throwable t) {
+            failure = t;
+        }
+        // join: every worker unparks this thread when its group is done
+        for (int g = 1; g < groups.size(); g++) {
+            MonitorGroup group = groups.get(g);
+            while (!group.isDone()) {
+                LockSupport.park(this);
+            }
+            Throwable thrown = group.takeFailure();
+            if (failure == null) failure = thrown;
+        }
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if (failure instanceof Error) throw (Error) failure;
+    }
+
+    private void processTransitions(MonitorState state) {
+        DeviceMonitor<?> monitor = state.monitor;
+        boolean faulty = !monitor.isHealthy();
+        int version = monitor.getFaultVersion();
+        if (faulty == state.faulty && version == state.faultVersion) {
+            return; // steady state, nothing to report
+        }
+
+        long now = Clock.nanoTime();
+        LoggingStream.LogLevel severity = LoggingStream.LogLevel.DEBUG;
+        if (faulty) {
+            if (!state.faulty) {
+                state.faultySinceNanos = now;
+            }
+            for (int i = 0; i < monitor.getFaultCount(); i++) {
+                FaultRecord fault = monitor.getFaultRecord(i);
+                if (fault.getSeverity().compareTo(severity) > 0) severity = fault.getSeverity();
+                if (fault.getRaiseVersion() > state.reportedVersion) {
+                    onRaised(monitor, fault);
+                }
+            }
+        } else if (state.faulty) {
+            onCleared(monitor, state.indexedSeverity, now, now - state.faultySinceNanos);
+        }
+        healthIndex.update(state, faulty, severity);
+
+        state.faulty = faulty;
+        state.faultVersion = version;
+        state.reportedVersion = version;
+    }
+
+    private void onRaised(DeviceMonitor<?> monitor, FaultRecord fault) {
+        if (loggingStream != null && loggingStream.isLoggable(fault.getSeverity())) {
+            messageBuilder.setLength(0);
+            messageBuilder.append("Fault raised: ");
+            loggingStream.log(fault.getSeverity(), fault.describe(messageBuilder).toString());
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onFaultRaised(monitor, fault);
+        }
+        if (eventBus.hasSubscribers()) {
+            eventBus.publish(FaultEvent.raised(monitor.getDeviceType(), fault));
+        }
+    }
+
+    private void onCleared(DeviceMonitor<?> monitor, LoggingStream.LogLevel severity, long now, long faultyForNanos) {
+        if (loggingStream != null) {
+            loggingStream.log(LoggingStream.LogLevel.INFO, "{} recovered after {}ms", monitor.getName(), faultyForNanos / 1_000_000L);
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onFaultCleared(monitor, faultyForNanos);
+        }
+        if (eventBus.hasSubscribers()) {
+            eventBus.publish(FaultEvent.cleared(monitor.getName(), monitor.getDeviceType(), severity, now, faultyForNanos));
+        }
+    }
+
+    private void emitDigest(long now) {
+        for (MonitorState state : states.values()) {
+            if (!state.faulty) continue;
+            DeviceMonitor<?> monitor = state.monitor;
+            long faultyFor = now - state.faultySinceNanos;
+            if (loggingStream != null) {
+                LoggingStream.LogLevel level = LoggingStream.LogLevel.DEBUG;
+                for (int i = 0; i < monitor.getFaultCount(); i++) {
+                    LoggingStream.LogLevel severity = monitor.getFaultRecord(i).getSeverity();
+                    if (severity.compareTo(level) > 0) level = severity;
+                }
+                // the level is known before the message, so a filtered digest builds no text
+                if (loggingStream.isLoggable(level)) {
+                    messageBuilder.setLength(0);
+                    messageBuilder.append(monitor.getName()).append(" still faulty after ").append(faultyFor / 1_000_000L).append("ms:");
+                    for (int i = 0; i < monitor.getFaultCount(); i++) {
+                        FaultRecord fault = monitor.getFaultRecord(i);
+                        messageBuilder.append(' ').append(fault.getCode()).append(" x").append(fault.getOccurrences());
+                    }
+                    loggingStream.log(level, messageBuilder.toString());
+                }
+            }
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onFaultDigest(monitor, faultyFor);
+            }
+        }
+    }
+
+    /**
+     * Adds a listener for fault raise, clear and digest transitions.
+     *
+     * @param listener The listener to add
+     */
+    public synchronized void addFaultListener(FaultListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a fault listener.
+     *
+     * @param listener The listener to remove
+     */
+    public synchronized void removeFaultListener(FaultListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the cache monitors read the hardware through. Every {@link #updateAll(long)} starts a new tick; read through it after the update to reuse the values the monitors read, and check {@link DeviceValueCache#getHitCount()} against {@link DeviceValueCache#getMissCount()} for the savings.
+     *
+     * @return The per-tick device value cache
+     */
+    public DeviceValueCache getValueCache() {
+        return valueCache;
+    }
+
+    /**
+     * Gets the lock-free bus fault raise and clear events are published on, so other threads can react without polling or blocking the tick. Subscribe to it to receive events on another thread, for example {@code faultManager.getEventBus().subscribe(event -> ...)}.
+     *
+     * @return The fault event bus
+     */
+    public FaultEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Sets how often a digest of still-active faults is logged, with occurrence counts.
+     *
+     * @param digestIntervalMs Digest interval in milliseconds, 0 to disable digests
+     */
+    public void setDigestIntervalMs(long digestIntervalMs) {
+        this.digestIntervalMs = Math.max(0, digestIntervalMs);
+    }
+
+    /**
+     * Gets how often a digest of still-active faults is logged.
+     *
+     * @return Digest interval in milliseconds, 0 if disabled
+     */
+    public long getDigestIntervalMs() {
+        return digestIntervalMs;
     }
 
     /**
      * Sets the logging stream for fault reporting.
      *
      * @param loggingStream The logging stream to use for fault reporting
-     * @deprecated Use dependency injection instead
+     * @deprecated Pass the stream to {@link #FaultManager(LoggingStream)} instead
      */
     @Deprecated
     public void setLoggingStream(LoggingStream loggingStream) {
         this.loggingStream = loggingStream;
     }
 
+    /**
+     * Enables bulk-read-aware monitoring. The manager refreshes the hub bulk caches once at the start of every {@link #updateAll()}, so monitors reading encoders, digital or analog channels are served from cached data.
+     *
+     * @param bulkReadManager The bulk read manager to use, or null to disable bulk reads
+     */
+    public void setBulkReadManager(BulkReadManager bulkReadManager) {
+        this.bulkReadManager = bulkReadManager;
+    }
+
+    /**
+     * Gets the bulk read manager.
+     *
+     * @return The bulk read manager, or null if bulk reads are not enabled
+     */
+    public BulkReadManager getBulkReadManager() {
+        return bulkReadManager;
+    }
+
+    /**
+     * Starts sampling every updated monitor into a flight recorder. Monitors already registered are added to the recording.
+     *
+     * @param flightRecorder The recorder to write to, or null to stop recording
+     */
+    public synchronized void setFlightRecorder(FlightRecorder flightRecorder) {
+        this.flightRecorder = flightRecorder;
+        for (MonitorState state : states.values()) {
+            state.recorderId = flightRecorder != null ? flightRecorder.register(state.monitor) : -1;
+        }
+    }
+
+    /**
+     * Gets the flight recorder.
+     *
+     * @return The flight recorder, or null if not recording
+     */
+    public FlightRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
     /**
      * Retrieves a device monitor by name.
      *
      * @param name The name of the device monitor
      * @return The device monitor, or null if not found
      */
-    public DeviceMonitor<?> getMonitor(String name) {
+    public synchronized DeviceMonitor<?> getMonitor(String name) {
         return monitors.get(name);
     }
 
     /**
-     * Gets all registered device monitors.
+     * Gets all registered device monitors. The collection is replaced, not modified, when monitors are registered or removed, so it can be kept and iterated from any thread.
      *
-     * @return Collection of all device monitors
+     * @return Immutable collection of all device monitors
      */
     public Collection<DeviceMonitor<?>> getAllMonitors() {
-        return monitors.values();
+        return monitorView;
     }
 
     /**
@@ -83,14 +444,144 @@ public class FaultManager {
      *
      * @param name The configuration name of the device monitor to remove
      */
-    public void removeMonitor(String name) {
-        monitors.remove(name);
+    public synchronized void removeMonitor(String name) {
+        DeviceMonitor<?> removed = monitors.remove(name);
+        if (removed != null) {
+            unregister(removed);
+            publishMonitors();
+        }
     }
 
     /**
      * Removes all registered device monitors.
      */
-    public void removeAllMonitors() {
+    public synchronized void removeAllMonitors() {
         monitors.clear();
+        for (int i = 0; i < groups.size(); i++) {
+            groups.get(i).scheduler.clear();
+        }
+        states.clear();
+        healthIndex.clear();
+        publishMonitors();
+    }
+
+    /**
+     * Checks if every monitor was healthy when last updated. Constant time and lock-free, so it can be polled every loop, including while a {@link BackgroundMonitor} is updating.
+     *
+     * @return True if no monitor has active faults
+     */
+    public boolean isAllHealthy() {
+        return healthIndex.isAllHealthy();
+    }
+
+    /**
+     * Gets the number of monitors with active faults. Read from an index updated on transitions only, so it costs the same however many monitors are registered, as do {@link #highestSeverity()} and {@link #faultyMonitors()}.
+     *
+     * @return Unhealthy monitor count
+     */
+    public int getFaultyCount() {
+        return healthIndex.getFaultyCount();
+    }
+
+    /**
+     * Gets the highest severity among all active faults.
+     *
+     * @return Highest severity, or null if every monitor is healthy
+     */
+    public LoggingStream.LogLevel highestSeverity() {
+        return healthIndex.getHighestSeverity();
+    }
+
+    /**
+     * Gets the monitors with active faults. The list is replaced, not modified, when a monitor's state changes, so it can be kept and iterated from any thread.
+     *
+     * @return Immutable list of unhealthy monitors, in no particular order
+     */
+    public List<DeviceMonitor<?>> faultyMonitors() {
+        return healthIndex.getFaulty();
+    }
+
+    /**
+     * Gets the monitors whose most severe active fault has the given severity.
+     *
+     * @param severity The severity
+     * @return Immutable list of unhealthy monitors, in no particular order
+     */
+    public List<DeviceMonitor<?>> faultyMonitors(LoggingStream.LogLevel severity) {
+        return healthIndex.getFaulty(severity);
+    }
+
+    /**
+     * Gets the monitors of a device type with active faults.
+     *
+     * @param deviceType Device type as returned by {@link DeviceMonitor#getDeviceType()}
+     * @return Immutable list of unhealthy monitors, in no particular order
+     */
+    public List<DeviceMonitor<?>> faultyMonitors(String deviceType) {
+        return healthIndex.getFaulty(deviceType);
+    }
+
+    /**
+     * Gets the update latency of a monitor: how long its {@link DeviceMonitor#update()} calls took.
+     *
+     * @param name The name of the device monitor
+     * @return The monitor's latency histogram, or null if not found
+     */
+    public synchronized LatencyHistogram getLatency(String name) {
+        DeviceMonitor<?> monitor = monitors.get(name);
+        return monitor == null ? null : states.get(monitor).latency;
+    }
+
+    /**
+     * Gets the combined update latency of every monitor of a device type.
+     *
+     * @param deviceType Device type as returned by {@link DeviceMonitor#getDeviceType()}
+     * @return The device type's latency histogram, or null if no such monitor was registered
+     */
+    public synchronized LatencyHistogram getDeviceTypeLatency(String deviceType) {
+        return typeLatencies.get(deviceType);
+    }
+
+    /**
+     * Gets the update latency of every device type registered so far.
+     *
+     * @return Immutable map of device type to latency histogram, replaced rather than modified when a new type is registered
+     */
+    public Map<String, LatencyHistogram> getDeviceTypeLatencies() {
+        return typeLatencyView;
+    }
+
+    /**
+     * Gets the duration of whole {@link #updateAll(long)} ticks, including bulk reads and fault processing.
+     *
+     * @return The tick latency histogram
+     */
+    public LatencyHistogram getTickLatency() {
+        return tickLatency;
+    }
+
+    /**
+     * Clears every monitor, device type, group and tick latency histogram.
+     */
+    public synchronized void resetLatencies() {
+        for (MonitorState state : states.values()) {
+            state.latency.reset();
+        }
+        for (LatencyHistogram histogram : typeLatencies.values()) {
+            histogram.reset();
+        }
+        for (int i = 0; i < groups.size(); i++) {
+            groups.get(i).getTickLatency().reset();
+        }
+        tickLatency.reset();
+    }
+
+    /**
+     * Gets the scheduler deciding which monitors run on each tick, including its overrun statistics. With parallel updates this is the main group's scheduler; see {@link #getGroups()} for the others.
+     *
+     * @return The monitor scheduler
+     */
+    public MonitorScheduler getScheduler() {
+        return scheduler;
     }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.ikknight.octofault.core;
+
+import com.ikknight.octofault.utils.LoggingStream;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the unhealthy monitors kept by the {@link FaultManager}, grouped by severity and device type. It is only touched when a monitor's fault state changes, so queries cost the same however many monitors are registered.
+ * <p>
+ * Changes are made under the manager's lock. Each group publishes an immutable list on change, so queries need no lock and can run on another thread than the updates.
+ */
+final class HealthIndex {
+
+    private static final LoggingStream.LogLevel[] LEVELS = LoggingStream.LogLevel.values();
+    private static final List<DeviceMonitor<?>> EMPTY = Collections.emptyList();
+
+    private final Group all = new Group(MonitorState.SLOT_ALL);
+    private final Group[] bySeverity = new Group[LEVELS.length];
+    private final Map<String, Group> byType = new HashMap<>();
+    private volatile LoggingStream.LogLevel highestSeverity = null;
+
+    HealthIndex() {
+        for (int i = 0; i < LEVELS.length; i++) {
+            bySeverity[i] = new Group(MonitorState.SLOT_SEVERITY);
+        }
+    }
+
+    /**
+     * Moves a monitor to the groups matching its current state. Does nothing if neither its health nor its severity changed.
+     *
+     * @param state The monitor's state
+     * @param faulty Whether the monitor is unhealthy
+     * @param severity Highest severity of its faults, ignored if healthy
+     */
+    void update(MonitorState state, boolean faulty, LoggingStream.LogLevel severity) {
+        LoggingStream.LogLevel indexed = state.indexedSeverity;
+        if (!faulty) {
+            if (indexed != null) remove(state);
+            return;
+        }
+        if (indexed == severity) return;
+
+        if (indexed == null) {
+            all.add(state);
+            typeGroup(state.monitor.getDeviceType()).add(state);
+        } else {
+            bySeverity[indexed.ordinal()].remove(state);
+        }
+        bySeverity[severity.ordinal()].add(state);
+        state.indexedSeverity = severity;
+        updateHighestSeverity();
+    }
+
+    /**
+     * Removes a monitor from every group, for example when it is unregistered.
+     *
+     * @param state The monitor's state, may be null
+     */
+    void remove(MonitorState state) {
+        if (state == null || state.indexedSeverity == null) return;
+        LoggingStream.LogLevel indexed = state.indexedSeverity;
+        all.remove(state);
+        bySeverity[indexed.ordinal()].remove(state);
+        byType.get(state.monitor.getDeviceType()).remove(state);
+        state.indexedSeverity = null;
+        updateHighestSeverity();
+    }
+
+    /**
+     * Empties the index.
+     */
+    void clear() {
+        for (MonitorState state : all.members) {
+            state.indexedSeverity = null;
+        }
+        all.clear();
+        for (Group group : bySeverity) {
+            group.clear();
+        }
+        for (Group group : byType.values()) {
+            group.clear();
+        }
+        highestSeverity = null;
+    }
+
+    private Group typeGroup(String deviceType) {
+        synchronized (byType) {
+            Group group = byType.get(deviceType);
+            if (group == null) {
+                group = new Group(MonitorState.SLOT_TYPE);
+                byType.put(deviceType, group);
+            }
+            return group;
+        }
+    }
+
+    private void updateHighestSeverity() {
+        for (int i = LEVELS.length - 1; i >= 0; i--) {
+            if (bySeverity[i].size() > 0) {
+                highestSeverity = LEVELS[i];
+                return;
+            }
+        }
+        highestSeverity = null;
+    }
+
+    boolean isAllHealthy() {
+        return all.published.isEmpty();
+    }
+
+    int getFaultyCount() {
+        return all.published.size();
+    }
+
+    LoggingStream.LogLevel getHighestSeverity() {
+        return highestSeverity;
+    }
+
+    List<DeviceMonitor<?>> getFaulty() {
+        return all.published;
+    }
+
+    List<DeviceMonitor<?>> getFaulty(LoggingStream.LogLevel severity) {
+        return bySeverity[severity.ordinal()].published;
+    }
+
+    List<DeviceMonitor<?>> getFaulty(String deviceType) {
+        Group group;
+        synchronized (byType) {
+            group = byType.get(deviceType);
+        }
+        return group == null ? EMPTY : group.published;
+    }
+
+    /**
+     * One group of unhealthy monitors. Members are removed by swapping in the last one, with each state remembering its position in the group.
+     */
+    private static final class Group {
+        private final int slot;
+        private final ArrayList<MonitorState> members = new ArrayList<>();
+        volatile List<DeviceMonitor<?>> published = EMPTY;
+
+        Group(int slot) {
+            this.slot = slot;
+        }
+
+        int size() {
+            return members.size();
+        }
+
+        void add(MonitorState state) {
+            state.indexSlots[slot] = members.size();
+            members.add(state);
+            publish();
+        }
+
+        void remove(MonitorState state) {
+            int position = state.indexSlots[slot];
+            MonitorState last = members.remove(members.size() - 1);
+            if (last != state) {
+                members.set(position, last);
+                last.indexSlots[slot] = position;
+            }
+            state.indexSlots[slot] = -1;
+            publish();
+        }
+
+        void clear() {
+            for (MonitorState state : members) {
+                state.indexSlots[slot] = -1;
+            }
+            members.clear();
+            published = EMPTY;
+        }
+
+        private void publish() {
+            if (members.isEmpty()) {
+                published = EMPTY;
+                return;
+            }
+            DeviceMonitor<?>[] monitors = new DeviceMonitor<?>[members.size()];
+            for (int i = 0; i < monitors.length; i++) {
+                monitors[i] = members.get(i).monitor;
+            }
+            published = Collections.unmodifiableList(Arrays.asList(monitors));
+        }
+    }
+}
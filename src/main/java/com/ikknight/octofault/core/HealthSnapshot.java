@@ -0,0 +1,185 @@
+package com.ikknight.octofault.core;
+
+import com.ikknight.octofault.utils.Clock;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+import com.ikknight.octofault.utils.monitors.FaultRecord;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of every monitor's health at the end of one tick. Snapshots are published by {@link BackgroundMonitor} and can be read from any thread without locking.
+ *
+ * @see BackgroundMonitor#getSnapshot()
+ */
+public final class HealthSnapshot {
+
+    /**
+     * Health of a single monitor at the time of the snapshot.
+     */
+    public static final class MonitorHealth {
+        private final String name;
+        private final String deviceType;
+        private final boolean healthy;
+        private final FaultRecord[] faults;
+
+        MonitorHealth(String name, String deviceType, boolean healthy, FaultRecord[] faults) {
+            this.name = name;
+            this.deviceType = deviceType;
+            this.healthy = healthy;
+            this.faults = faults;
+        }
+
+        /**
+         * Gets the device name.
+         *
+         * @return Device name from hardware map
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the device type name.
+         *
+         * @return Device type identifier
+         */
+        public String getDeviceType() {
+            return deviceType;
+        }
+
+        /**
+         * Checks if the device was operating normally.
+         *
+         * @return True if no faults were detected
+         */
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        /**
+         * Gets the number of faults recorded at the time of the snapshot.
+         *
+         * @return Fault count
+         */
+        public int getFaultCount() {
+            return faults.length;
+        }
+
+        /**
+         * Gets a fault recorded at the time of the snapshot.
+         *
+         * @param index Position in [0, {@link #getFaultCount()})
+         * @return The fault record, owned by this snapshot
+         */
+        public FaultRecord getFault(int index) {
+            return faults[index];
+        }
+
+        /**
+         * Renders the fault reasons at the time of the snapshot.
+         *
+         * @return List of fault descriptions
+         */
+        public List<String> getFaultReasons() {
+            List<String> reasons = new ArrayList<>(faults.length);
+            for (FaultRecord fault : faults) {
+                reasons.add(fault.toString());
+            }
+            return reasons;
+        }
+
+        @Override
+        public String toString() {
+            return healthy ? name + ": healthy" : name + " is faulty: " + getFaultReasons();
+        }
+    }
+
+    private static final FaultRecord[] NO_FAULTS = new FaultRecord[0];
+
+    /**
+     * Snapshot published before the first tick completes.
+     */
+    public static final HealthSnapshot EMPTY = new HealthSnapshot(0, 0, Collections.<String, MonitorHealth>emptyMap(), true);
+
+    private final long timestampNanos;
+    private final long tick;
+    private final Map<String, MonitorHealth> monitors;
+    private final boolean allHealthy;
+
+    private HealthSnapshot(long timestampNanos, long tick, Map<String, MonitorHealth> monitors, boolean allHealthy) {
+        this.timestampNanos = timestampNanos;
+        this.tick = tick;
+        this.monitors = monitors;
+        this.allHealthy = allHealthy;
+    }
+
+    /**
+     * Captures the current health of the given monitors. Must be called on the thread that updates them.
+     *
+     * @param monitors Monitors to capture
+     * @param tick Tick number the snapshot belongs to
+     * @return A new immutable snapshot
+     */
+    static HealthSnapshot capture(Collection<DeviceMonitor<?>> monitors, long tick) {
+        Map<String, MonitorHealth> entries = new HashMap<>();
+        boolean allHealthy = true;
+        for (DeviceMonitor<?> monitor : monitors) {
+            boolean healthy = monitor.isHealthy();
+            FaultRecord[] faults = healthy ? NO_FAULTS : monitor.copyFaultRecords();
+            entries.put(monitor.getName(), new MonitorHealth(monitor.getName(), monitor.getDeviceType(), healthy, faults));
+            allHealthy &= healthy;
+        }
+        return new HealthSnapshot(Clock.nanoTime(), tick, Collections.unmodifiableMap(entries), allHealthy);
+    }
+
+    /**
+     * Gets the time the snapshot was taken.
+     *
+     * @return {@link Clock#nanoTime()} at capture
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * Gets the tick the snapshot belongs to.
+     *
+     * @return Tick number, 0 before the first tick
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Checks if every monitor was healthy.
+     *
+     * @return True if no monitor reported a fault
+     */
+    public boolean isAllHealthy() {
+        return allHealthy;
+    }
+
+    /**
+     * Gets the health of a monitor by name.
+     *
+     * @param name The name of the device monitor
+     * @return The monitor's health, or null if not found
+     */
+    public MonitorHealth get(String name) {
+        return monitors.get(name);
+    }
+
+    /**
+     * Gets the health of every monitor.
+     *
+     * @return Unmodifiable collection of monitor health entries
+     */
+    public Collection<MonitorHealth> getAll() {
+        return monitors.values();
+    }
+}
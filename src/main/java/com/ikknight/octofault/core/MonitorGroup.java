@@ -0,0 +1,216 @@
+package com.ikknight.octofault.core;
+
+import com.ikknight.octofault.utils.LatencyHistogram;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Monitors updated together on one thread, typically every device behind one Lynx hub. With parallel updates enabled the {@link FaultManager} updates each group on its own worker so transactions on different hubs overlap, and joins them before processing faults. Each group has its own {@link MonitorScheduler} and tick timing.
+ *
+ * @see FaultManager#setParallelUpdates(Classifier)
+ */
+public final class MonitorGroup {
+
+    /**
+     * Decides which group a monitor belongs to.
+     */
+    public interface Classifier {
+        /**
+         * Gets the group of a monitor. Called once, on registration.
+         *
+         * @param monitor The monitor
+         * @return Group key, or null for the group updated on the calling thread
+         */
+        String groupOf(DeviceMonitor<?> monitor);
+    }
+
+    /**
+     * Groups monitors by the Lynx module (Control Hub or Expansion Hub) in their device's connection info.
+     */
+    public static final Classifier BY_HUB = monitor -> hubOf(connectionInfoOf(monitor), false);
+
+    /**
+     * Groups monitors by Lynx module and I2C bus, so each I2C bus gets its own group and motors, servos and other non-I2C devices are grouped by hub.
+     */
+    public static final Classifier BY_BUS = monitor -> hubOf(connectionInfoOf(monitor), true);
+
+    // workers with nothing to do for this long exit, and are started again by the next tick
+    private static final long IDLE_TIMEOUT_NANOS = 2_000_000_000L;
+
+    private final String key;
+    final MonitorScheduler scheduler = new MonitorScheduler();
+    private final LatencyHistogram tickLatency = new LatencyHistogram();
+    private volatile long lastTickNanos = 0;
+
+    private Thread worker;
+    private volatile long posted = 0;
+    private volatile long done = 0;
+    private volatile long budgetMicros;
+    private volatile Thread waiter;
+    private volatile Throwable failure;
+
+    MonitorGroup(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Runs one tick of this group on the calling thread.
+     *
+     * @param budgetMicros Time budget for this tick in microseconds, or 0 for no limit
+     */
+    void runTick(long budgetMicros) {
+        long start = System.nanoTime();
+        try {
+            scheduler.runTick(budgetMicros);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            lastTickNanos = elapsed;
+            tickLatency.record(elapsed);
+        }
+    }
+
+    /**
+     * Hands one tick to this group's worker, starting it if it is not running.
+     *
+     * @param budgetMicros Time budget for this tick in microseconds, or 0 for no limit
+     * @param waiter Thread to wake when the tick is done
+     */
+    synchronized void post(long budgetMicros, Thread waiter) {
+        this.budgetMicros = budgetMicros;
+        this.waiter = waiter;
+        posted++;
+        if (worker == null) {
+            worker = new Thread(this::work, "Octofault-Group-" + key);
+            worker.setDaemon(true);
+            worker.start();
+        } else {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Checks whether the last posted tick is done.
+     *
+     * @return True if done
+     */
+    boolean isDone() {
+        return done == posted;
+    }
+
+    /**
+     * Gets and clears what the last tick on the worker threw.
+     *
+     * @return The failure, or null
+     */
+    Throwable takeFailure() {
+        Throwable thrown = failure;
+        failure = null;
+        return thrown;
+    }
+
+    private void work() {
+        long idleSince = System.nanoTime();
+        while (true) {
+            long target = posted;
+            if (target != done) {
+                try {
+                    runTick(budgetMicros);
+                } catch (Throwable t) {
+                    failure = t;
+                }
+                done = target;
+                LockSupport.unpark(waiter);
+                idleSince = System.nanoTime();
+                continue;
+            }
+            if (System.nanoTime() - idleSince > IDLE_TIMEOUT_NANOS) {
+                synchronized (this) {
+                    if (posted == done) {
+                        worker = null;
+                        return;
+                    }
+                }
+            }
+            LockSupport.parkNanos(this, IDLE_TIMEOUT_NANOS);
+        }
+    }
+
+    /**
+     * Gets the group key.
+     *
+     * @return Key returned by the classifier, or {@code "main"} for the group updated on the calling thread
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the number of monitors in the group.
+     *
+     * @return Monitor count
+     */
+    public int size() {
+        return scheduler.size();
+    }
+
+    /**
+     * Gets the scheduler deciding which of the group's monitors run on each tick.
+     *
+     * @return The group's scheduler
+     */
+    public MonitorScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Gets how long the group's last tick took on its thread.
+     *
+     * @return Last group tick duration in nanoseconds
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * Gets the duration of the group's ticks. Compare with {@link FaultManager#getTickLatency()}: with overlapping groups the whole tick takes about as long as the slowest group, not the sum.
+     *
+     * @return The group's tick latency histogram
+     */
+    public LatencyHistogram getTickLatency() {
+        return tickLatency;
+    }
+
+    @Override
+    public String toString() {
+        return key + " (" + size() + " monitors)";
+    }
+
+    private static String connectionInfoOf(DeviceMonitor<?> monitor) {
+        try {
+            return monitor.getDevice().getConnectionInfo();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Lynx connection info looks like "USB (embedded); module 173; port 0" or "...; module 2; bus 1"
+    private static String hubOf(String connectionInfo, boolean withBus) {
+        if (connectionInfo == null) return null;
+        String module = numberedPart(connectionInfo, "module ");
+        if (module == null) return null;
+        if (withBus) {
+            String bus = numberedPart(connectionInfo, "bus ");
+            if (bus != null) return module + "; " + bus;
+        }
+        return module;
+    }
+
+    private static String numberedPart(String text, String label) {
+        int start = text.indexOf(label);
+        if (start < 0) return null;
+        int end = start + label.length();
+        while (end < text.length() && Character.isDigit(text.charAt(end))) end++;
+        return end == start + label.length() ? null : text.substring(start, end);
+    }
+}
@@ -0,0 +1,251 @@
+package com.ikknight.octofault.core;
+
+import com.ikknight.octofault.utils.Clock;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+
+/**
+ * Decides which monitors are updated on each tick. Every monitor is polled at its own {@link DeviceMonitor#getPollIntervalMs() interval}, and a tick stops starting new updates once its time budget is spent. Monitors that were due but did not fit are updated first on the next tick (round-robin), so no monitor is starved however tight the budget is.
+ *
+ * @see FaultManager#updateAll(long)
+ */
+public class MonitorScheduler {
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private DeviceMonitor<?>[] monitors = new DeviceMonitor<?>[8];
+    private long[] lastUpdateNanos = new long[8];
+    private int size = 0;
+    private int cursor = 0;
+
+    private DeviceMonitor<?>[] updated = new DeviceMonitor<?>[8];
+    private long[] updateNanos = new long[8];
+    private int updatedCount = 0;
+
+    private long ticks = 0;
+    private long overrunTicks = 0;
+    private long deferredUpdates = 0;
+    private int deferredLastTick = 0;
+    private long lastTickNanos = 0;
+    private long maxTickNanos = 0;
+    private long maxOverrunNanos = 0;
+
+    /**
+     * Adds a monitor to the schedule. It is due immediately.
+     *
+     * @param monitor The monitor to schedule
+     */
+    public void add(DeviceMonitor<?> monitor) {
+        if (size == monitors.length) {
+            int capacity = size * 2;
+            DeviceMonitor<?>[] grownMonitors = new DeviceMonitor<?>[capacity];
+            long[] grownTimes = new long[capacity];
+            System.arraycopy(monitors, 0, grownMonitors, 0, size);
+            System.arraycopy(lastUpdateNanos, 0, grownTimes, 0, size);
+            monitors = grownMonitors;
+            lastUpdateNanos = grownTimes;
+            updated = new DeviceMonitor<?>[capacity];
+            updateNanos = new long[capacity];
+        }
+        monitors[size] = monitor;
+        lastUpdateNanos[size] = NEVER;
+        size++;
+    }
+
+    /**
+     * Removes a monitor from the schedule.
+     *
+     * @param monitor The monitor to remove
+     */
+    public void remove(DeviceMonitor<?> monitor) {
+        for (int i = 0; i < size; i++) {
+            if (monitors[i] == monitor) {
+                System.arraycopy(monitors, i + 1, monitors, i, size - i - 1);
+                System.arraycopy(lastUpdateNanos, i + 1, lastUpdateNanos, i, size - i - 1);
+                size--;
+                monitors[size] = null;
+                if (cursor > i) cursor--;
+                if (cursor >= size) cursor = 0;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes all monitors from the schedule.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            monitors[i] = null;
+        }
+        size = 0;
+        cursor = 0;
+        updatedCount = 0;
+    }
+
+    /**
+     * Runs one tick: updates every due monitor, starting where the previous tick left off, until the budget is spent. At least one due monitor is always updated so the schedule keeps moving even when a single update exceeds the budget.
+     *
+     * @param budgetMicros Time budget for this tick in microseconds, or 0 for no limit
+     * @return Number of monitors updated
+     */
+    public int runTick(long budgetMicros) {
+        long start = System.nanoTime();
+        long now = Clock.nanoTime();
+        long budgetNanos = budgetMicros > 0 ? budgetMicros * 1000L : Long.MAX_VALUE;
+        updatedCount = 0;
+        int deferred = 0;
+        int resumeAt = -1;
+
+        for (int i = 0; i < size; i++) {
+            int index = (cursor + i) % size;
+            DeviceMonitor<?> monitor = monitors[index];
+            long last = lastUpdateNanos[index];
+            if (last != NEVER && now - last < monitor.getPollIntervalMs() * 1_000_000L) {
+                continue;
+            }
+
+            if (resumeAt >= 0 || (updatedCount > 0 && System.nanoTime() - start >= budgetNanos)) {
+                if (resumeAt < 0) resumeAt = index;
+                deferred++;
+                continue;
+            }
+
+            long updateStart = System.nanoTime();
+            monitor.update();
+            updateNanos[updatedCount] = System.nanoTime() - updateStart;
+            lastUpdateNanos[index] = now;
+            updated[updatedCount++] = monitor;
+        }
+
+        if (resumeAt >= 0) {
+            cursor = resumeAt;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        ticks++;
+        lastTickNanos = elapsed;
+        if (elapsed > maxTickNanos) maxTickNanos = elapsed;
+        deferredLastTick = deferred;
+        if (deferred > 0 || elapsed > budgetNanos) {
+            overrunTicks++;
+            deferredUpdates += deferred;
+            long overrun = elapsed - budgetNanos;
+            if (overrun > maxOverrunNanos) maxOverrunNanos = overrun;
+        }
+        return updatedCount;
+    }
+
+    /**
+     * Gets the monitor updated at the given position during the last tick.
+     *
+     * @param index Position in [0, {@link #getUpdatedCount()})
+     * @return The updated monitor
+     */
+    public DeviceMonitor<?> getUpdated(int index) {
+        return updated[index];
+    }
+
+    /**
+     * Gets how long the update of the monitor at the given position took during the last tick.
+     *
+     * @param index Position in [0, {@link #getUpdatedCount()})
+     * @return Update duration in nanoseconds
+     */
+    public long getUpdateNanos(int index) {
+        return updateNanos[index];
+    }
+
+    /**
+     * Gets the number of monitors updated during the last tick.
+     *
+     * @return Updated monitor count
+     */
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    /**
+     * Gets the number of scheduled monitors.
+     *
+     * @return Monitor count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of ticks run.
+     *
+     * @return Tick count
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the number of ticks that ran out of budget, either by deferring due monitors or by finishing past the deadline.
+     *
+     * @return Overrun tick count
+     */
+    public long getOverrunTicks() {
+        return overrunTicks;
+    }
+
+    /**
+     * Gets the total number of due monitor updates pushed to a later tick.
+     *
+     * @return Deferred update count
+     */
+    public long getDeferredUpdates() {
+        return deferredUpdates;
+    }
+
+    /**
+     * Gets the number of due monitors pushed to the next tick by the last tick.
+     *
+     * @return Deferred monitors in the last tick
+     */
+    public int getDeferredLastTick() {
+        return deferredLastTick;
+    }
+
+    /**
+     * Gets the duration of the last tick.
+     *
+     * @return Last tick duration in nanoseconds
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * Gets the longest tick duration seen.
+     *
+     * @return Maximum tick duration in nanoseconds
+     */
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    /**
+     * Gets the largest amount by which a tick finished past its deadline.
+     *
+     * @return Maximum overrun in nanoseconds
+     */
+    public long getMaxOverrunNanos() {
+        return maxOverrunNanos;
+    }
+
+    /**
+     * Resets all overrun statistics.
+     */
+    public void resetStatistics() {
+        ticks = 0;
+        overrunTicks = 0;
+        deferredUpdates = 0;
+        deferredLastTick = 0;
+        lastTickNanos = 0;
+        maxTickNanos = 0;
+        maxOverrunNanos = 0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ikknight.octofault.core;
+
+import com.ikknight.octofault.utils.LatencyHistogram;
+import com.ikknight.octofault.utils.LoggingStream;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+
+/**
+ * Per-monitor bookkeeping kept by the {@link FaultManager} to detect fault transitions.
+ */
+final class MonitorState {
+    static final int SLOT_ALL = 0;
+    static final int SLOT_SEVERITY = 1;
+    static final int SLOT_TYPE = 2;
+
+    final DeviceMonitor<?> monitor;
+    boolean faulty = false;
+    int faultVersion;
+    long faultySinceNanos = 0;
+    // fault version up to which raises were reported
+    int reportedVersion = Integer.MIN_VALUE;
+    int recorderId = -1;
+    final LatencyHistogram latency = new LatencyHistogram();
+    final LatencyHistogram typeLatency;
+    // position in each HealthIndex group, -1 when not in it
+    final int[] indexSlots = {-1, -1, -1};
+    LoggingStream.LogLevel indexedSeverity = null;
+    MonitorGroup group;
+
+    MonitorState(DeviceMonitor<?> monitor, LatencyHistogram typeLatency) {
+        this.monitor = monitor;
+        this.typeLatency = typeLatency;
+        // force the first update to be examined even if the monitor never changes state
+        this.faultVersion = monitor.getFaultVersion() - 1;
+    }
+}
@@ -0,0 +1,316 @@
+package com.ikknight.octofault.core;
+
+import com.ikknight.octofault.utils.Clock;
+import com.ikknight.octofault.utils.LoggingStream;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+import com.ikknight.octofault.utils.monitors.FaultRecord;
+import com.qualcomm.ftccommon.configuration.RobotConfigFile;
+import com.qualcomm.ftccommon.configuration.RobotConfigFileManager;
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide store of monitors and fault history that outlives OpModes. There is one registry, for the active robot configuration; activating another configuration drops it and starts a new one. A {@link com.ikknight.octofault.utils.DeviceRegistrator} created while persistence is enabled takes monitors from it instead of building new ones. A monitor is reused when its device is still the same object; the SDK keeps device objects between OpModes and replaces them when the configuration or a device changes. Switching from autonomous to teleop therefore creates no monitors. Reused monitors keep their fault state, thresholds and sample history. Devices added, removed or renamed in the configuration only change their own monitors; the rest, and the history, are kept.
+ * <p>
+ * The registry is kept in a static field of this library, so it survives Sloth reloads of TeamCode but not a restart of the robot controller app. A kept monitor is reused only if the code creating monitors now still resolves its class name to the same class; monitors whose class was reloaded since are created again.
+ * {@code PersistentMonitorRegistry.setEnabled(true); octofault = new Octofault(hardwareMap, telemetry);}
+ */
+public final class PersistentMonitorRegistry {
+
+    /**
+     * Number of fault events kept per configuration by default.
+     */
+    public static final int DEFAULT_HISTORY_CAPACITY = 256;
+
+    // configuration name used when the active one cannot be read, for example off the robot
+    private static final String UNKNOWN_CONFIGURATION = "";
+
+    private static PersistentMonitorRegistry current;
+    private static volatile boolean enabled = false;
+
+    private final String configuration;
+    private final Map<HardwareDevice, DeviceMonitor<?>> byDevice = new IdentityHashMap<>();
+    private final Map<String, HardwareDevice> deviceByName = new HashMap<>();
+    private final Map<String, LoggingStream.LogLevel> lastSeverity = new HashMap<>();
+    private FaultEvent[] history = new FaultEvent[DEFAULT_HISTORY_CAPACITY];
+    private int historyHead = 0;
+    private int historySize = 0;
+    private long reused = 0;
+    private long created = 0;
+    private FaultManager attached;
+    private long attachedNanos = Long.MIN_VALUE;
+
+    private final FaultListener historyListener = new FaultListener() {
+        @Override
+        public void onFaultRaised(DeviceMonitor<?> monitor, FaultRecord fault) {
+            synchronized (PersistentMonitorRegistry.this) {
+                // a reused monitor's active faults are raised again in the new manager, but were recorded by the previous one
+                if (fault.getFirstSeenNanos() < attachedNanos) return;
+                lastSeverity.put(monitor.getName(), fault.getSeverity());
+            }
+            addEvent(FaultEvent.raised(monitor.getDeviceType(), fault));
+        }
+
+        @Override
+        public void onFaultCleared(DeviceMonitor<?> monitor, long faultyForNanos) {
+            LoggingStream.LogLevel severity;
+            synchronized (PersistentMonitorRegistry.this) {
+                severity = lastSeverity.remove(monitor.getName());
+            }
+            addEvent(FaultEvent.cleared(monitor.getName(), monitor.getDeviceType(), severity, Clock.nanoTime(), faultyForNanos));
+        }
+    };
+
+    private PersistentMonitorRegistry(String configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Enables or disables persistence for registrators created from now on. Stays set across OpModes, so setting it once in any OpMode is enough.
+     *
+     * @param enabled True to reuse monitors across OpModes
+     */
+    public static void setEnabled(boolean enabled) {
+        PersistentMonitorRegistry.enabled = enabled;
+    }
+
+    /**
+     * Checks whether registrators reuse monitors across OpModes.
+     *
+     * @return True if persistence is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the registry for the active configuration, if persistence is enabled, and drops the monitors of devices no longer in the hardware map under the same name.
+     *
+     * @param hardwareMap The hardware map of the current OpMode
+     * @return The configuration's registry, or null if persistence is disabled
+     */
+    public static PersistentMonitorRegistry active(HardwareMap hardwareMap) {
+        if (!enabled) return null;
+        PersistentMonitorRegistry registry = forConfiguration(activeConfigurationName());
+        registry.retainDevices(hardwareMap);
+        return registry;
+    }
+
+    /**
+     * Gets the registry for a configuration, dropping the registry of the previously active one.
+     *
+     * @param configuration Configuration name, see {@link #activeConfigurationName()}
+     * @return The configuration's registry
+     */
+    public static synchronized PersistentMonitorRegistry forConfiguration(String configuration) {
+        if (current == null || !current.configuration.equals(configuration)) {
+            current = new PersistentMonitorRegistry(configuration);
+        }
+        return current;
+    }
+
+    /**
+     * Drops the registry, so the next OpMode builds all monitors again and starts a new history.
+     */
+    public static synchronized void clearAll() {
+        current = null;
+    }
+
+    /**
+     * Gets the name of the active robot configuration, as selected on the Driver Station.
+     *
+     * @return Configuration name, or an empty string if it cannot be read
+     */
+    public static String activeConfigurationName() {
+        try {
+            RobotConfigFile config = new RobotConfigFileManager(AppUtil.getInstance().getActivity()).getActiveConfig();
+            return config != null && config.getName() != null ? config.getName() : UNKNOWN_CONFIGURATION;
+        } catch (RuntimeException | LinkageError e) {
+            return UNKNOWN_CONFIGURATION;
+        }
+    }
+
+    // a device renamed, removed or replaced since the last OpMode no longer gets its kept monitor back
+    private synchronized void retainDevices(HardwareMap hardwareMap) {
+        Iterator<Map.Entry<String, HardwareDevice>> entries = deviceByName.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, HardwareDevice> entry = entries.next();
+            if (hardwareMap.tryGet(entry.getValue().getClass(), entry.getKey()) != entry.getValue()) {
+                byDevice.remove(entry.getValue());
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets the monitor kept for a device, if the device has not changed since it was stored.
+     *
+     * @param device The device
+     * @param currentLoader Class loader of the code that would create the device's monitor now; a kept monitor whose class it resolves to a different class is stale after a reload
+     * @return The kept monitor, or null if a new one must be created
+     */
+    public synchronized DeviceMonitor<?> reuse(HardwareDevice device, ClassLoader currentLoader) {
+        DeviceMonitor<?> monitor = byDevice.get(device);
+        if (monitor == null) return null;
+        if (!isCurrent(monitor.getClass(), currentLoader)) {
+            byDevice.remove(device);
+            return null;
+        }
+        reused++;
+        return monitor;
+    }
+
+    private static boolean isCurrent(Class<?> type, ClassLoader currentLoader) {
+        try {
+            return Class.forName(type.getName(), false, currentLoader) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stores a newly created monitor, replacing the monitor of a device previously configured under the same name.
+     *
+     * @param device The device
+     * @param monitor Its monitor
+     */
+    public synchronized void store(HardwareDevice device, DeviceMonitor<?> monitor) {
+        HardwareDevice previous = deviceByName.put(monitor.getName(), device);
+        if (previous != null && previous != device) {
+            byDevice.remove(previous);
+        }
+        byDevice.put(device, monitor);
+        created++;
+    }
+
+    /**
+     * Records the fault transitions of a fault manager into this registry's history, and stops recording those of the previously attached manager.
+     *
+     * @param faultManager The fault manager of the current OpMode
+     */
+    public void attach(FaultManager faultManager) {
+        FaultManager previous;
+        synchronized (this) {
+            previous = attached;
+            if (previous == faultManager) return;
+            attached = faultManager;
+            attachedNanos = Clock.nanoTime();
+        }
+        // outside our lock: the managers call the listener, which takes it, while holding theirs
+        if (previous != null) {
+            previous.removeFaultListener(historyListener);
+        }
+        faultManager.addFaultListener(historyListener);
+    }
+
+    private synchronized void addEvent(FaultEvent event) {
+        history[(historyHead + historySize) % history.length] = event;
+        if (historySize < history.length) {
+            historySize++;
+        } else {
+            historyHead = (historyHead + 1) % history.length;
+        }
+    }
+
+    /**
+     * Sets how many fault events are kept. The oldest events beyond the new capacity are dropped.
+     *
+     * @param capacity Maximum number of events kept
+     */
+    public synchronized void setHistoryCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        List<FaultEvent> events = getHistory();
+        history = new FaultEvent[capacity];
+        historyHead = 0;
+        historySize = 0;
+        for (int i = Math.max(0, events.size() - capacity); i < events.size(); i++) {
+            addEvent(events.get(i));
+        }
+    }
+
+    /**
+     * Gets the fault events recorded across every OpMode run with this configuration since it was activated.
+     *
+     * @return Copy of the history, oldest first
+     */
+    public synchronized List<FaultEvent> getHistory() {
+        List<FaultEvent> events = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            events.add(history[(historyHead + i) % history.length]);
+        }
+        return events;
+    }
+
+    /**
+     * Gets the fault events of one monitor recorded across every OpMode run with this configuration.
+     *
+     * @param monitorName Device name from the hardware map
+     * @return Copy of the monitor's history, oldest first
+     */
+    public synchronized List<FaultEvent> getHistory(String monitorName) {
+        List<FaultEvent> events = new ArrayList<>();
+        for (int i = 0; i < historySize; i++) {
+            FaultEvent event = history[(historyHead + i) % history.length];
+            if (event.getMonitorName().equals(monitorName)) events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Clears the fault history, keeping the monitors.
+     */
+    public synchronized void clearHistory() {
+        history = new FaultEvent[history.length];
+        historyHead = 0;
+        historySize = 0;
+        lastSeverity.clear();
+    }
+
+    /**
+     * Gets the monitors kept for this configuration.
+     *
+     * @return Read-only copy of the kept monitors
+     */
+    public synchronized List<DeviceMonitor<?>> getMonitors() {
+        return Collections.unmodifiableList(new ArrayList<>(byDevice.values()));
+    }
+
+    /**
+     * Gets the name of the configuration this registry belongs to.
+     *
+     * @return Configuration name
+     */
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Gets the number of times a kept monitor was reused.
+     *
+     * @return Reused monitor count
+     */
+    public synchronized long getReusedCount() {
+        return reused;
+    }
+
+    /**
+     * Gets the number of monitors created and stored, including those replacing a changed device.
+     *
+     * @return Created monitor count
+     */
+    public synchronized long getCreatedCount() {
+        return created;
+    }
+}
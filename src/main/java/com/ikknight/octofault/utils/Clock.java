@@ -0,0 +1,65 @@
+package com.ikknight.octofault.utils;
+
+/**
+ * Time source for fault timestamps, poll intervals and stall detection. Defaults to {@link System#nanoTime()}; simulations install a virtual time source so a whole match runs in seconds with reproducible timings. Update and tick durations in the latency histograms are always measured in real time.
+ */
+public final class Clock {
+
+    /**
+     * Supplies the current time.
+     */
+    public interface TimeSource {
+        /**
+         * Gets the current time.
+         *
+         * @return Monotonic time in nanoseconds
+         */
+        long nanoTime();
+    }
+
+    /**
+     * The system's monotonic clock.
+     */
+    public static final TimeSource SYSTEM = System::nanoTime;
+
+    private static volatile TimeSource source = SYSTEM;
+
+    private Clock() {
+    }
+
+    /**
+     * Gets the current time from the installed time source.
+     *
+     * @return Monotonic time in nanoseconds
+     */
+    public static long nanoTime() {
+        return source.nanoTime();
+    }
+
+    /**
+     * Gets the current time from the installed time source.
+     *
+     * @return Monotonic time in milliseconds
+     */
+    public static long millis() {
+        return source.nanoTime() / 1_000_000L;
+    }
+
+    /**
+     * Replaces the time source. Install it before creating monitors, since some remember the time they were created.
+     *
+     * @param timeSource The new time source, or null for {@link #SYSTEM}
+     */
+    public static void setTimeSource(TimeSource timeSource) {
+        source = timeSource != null ? timeSource : SYSTEM;
+    }
+
+    /**
+     * Gets the installed time source.
+     *
+     * @return The current time source
+     */
+    public static TimeSource getTimeSource() {
+        return source;
+    }
+}
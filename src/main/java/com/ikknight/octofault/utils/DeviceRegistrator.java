@@ -1,38 +1,30 @@
 package com.ikknight.octofault.utils;
 
 import com.ikknight.octofault.core.FaultManager;
-import com.ikknight.octofault.utils.monitors.ColorSensorMonitor;
-import com.ikknight.octofault.utils.monitors.DcMotorMonitor;
+import com.ikknight.octofault.core.PersistentMonitorRegistry;
 import com.ikknight.octofault.utils.monitors.DeviceMonitor;
-import com.ikknight.octofault.utils.monitors.DistanceSensorMonitor;
-import com.ikknight.octofault.utils.monitors.IMUMonitor;
-import com.ikknight.octofault.utils.monitors.ServoMonitor;
-import com.ikknight.octofault.utils.monitors.TouchSensorMonitor;
-import com.ikknight.octofault.utils.monitors.VoltageSensorMonitor;
-import com.qualcomm.robotcore.hardware.CRServo;
-import com.qualcomm.robotcore.hardware.CRServoImpl;
-import com.qualcomm.robotcore.hardware.CRServoImplEx;
-import com.qualcomm.robotcore.hardware.ColorSensor;
-import com.qualcomm.robotcore.hardware.DcMotor;
-import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
-import com.qualcomm.robotcore.hardware.DistanceSensor;
 import com.qualcomm.robotcore.hardware.HardwareDevice;
 import com.qualcomm.robotcore.hardware.HardwareMap;
-import com.qualcomm.robotcore.hardware.IMU;
-import com.qualcomm.robotcore.hardware.Servo;
-import com.qualcomm.robotcore.hardware.TouchSensor;
-import com.qualcomm.robotcore.hardware.VoltageSensor;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
- * Automatically detects and registers hardware devices for fault monitoring. Pass the HardwareMap after all devices have been configured.
+ * Automatically detects and registers hardware devices for fault monitoring. Pass the HardwareMap after all devices have been configured. Each physical device gets at most one monitor, however many names or registration calls reach it.
+ * While {@link PersistentMonitorRegistry persistence} is enabled, monitors of devices unchanged since a previous OpMode are reused instead of created, and fault history is kept across OpModes.
  */
 public abstract class DeviceRegistrator {
 
     private final HardwareMap hardwareMap;
     private final FaultManager faultManager;
+    private final MonitorRegistry monitorRegistry;
+    private final PersistentMonitorRegistry persistentRegistry;
+    private final Map<HardwareDevice, String> names = new IdentityHashMap<>();
+    private boolean namesIndexed = false;
+    private final Map<HardwareDevice, DeviceMonitor<?>> registered = new IdentityHashMap<>();
+    private long lastRegistrationNanos = 0;
 
     /**
      * Creates a device registrator.
@@ -41,49 +33,90 @@ public abstract class DeviceRegistrator {
      * @param faultManager Fault manager to register monitors with
      */
     public DeviceRegistrator(HardwareMap hardwareMap, FaultManager faultManager){
+        this(hardwareMap, faultManager, MonitorRegistry.getDefault());
+    }
+
+    /**
+     * Creates a device registrator choosing monitors from a specific registry.
+     *
+     * @param hardwareMap Hardware map containing all configured devices
+     * @param faultManager Fault manager to register monitors with
+     * @param monitorRegistry Registry of monitor factories
+     */
+    public DeviceRegistrator(HardwareMap hardwareMap, FaultManager faultManager, MonitorRegistry monitorRegistry){
         this.hardwareMap = hardwareMap;
         this.faultManager = faultManager;
+        this.monitorRegistry = monitorRegistry;
+        this.persistentRegistry = PersistentMonitorRegistry.active(hardwareMap);
+        if (persistentRegistry != null) {
+            persistentRegistry.attach(faultManager);
+        }
     }
 
     /**
-     * Registers a single device for monitoring.
+     * Registers a single device for monitoring. Devices that already have a monitor are skipped.
      *
      * @param device The hardware device to monitor
      */
     public void registerDevice(HardwareDevice device){
-        Set<String> names = hardwareMap.getNamesOf(device);
-        if (names.isEmpty()) return;
-        String name = names.iterator().next();
-
-        DeviceMonitor<?> monitor = null;
-
-        if (device instanceof DcMotorSimple) {
-            monitor = new DcMotorMonitor(name, (DcMotorSimple) device);
-        } else if (device instanceof Servo){
-            monitor = new ServoMonitor(name, (Servo) device);
-        } else if (device instanceof IMU){
-            monitor = new IMUMonitor(name, (IMU) device);
-        }else if (device instanceof DistanceSensor){
-            monitor = new DistanceSensorMonitor(name, (DistanceSensor) device);
-        }else if (device instanceof ColorSensor){
-            monitor = new ColorSensorMonitor(name, (ColorSensor) device);
-        }else if (device instanceof TouchSensor){
-            monitor = new TouchSensorMonitor(name, (TouchSensor) device);
-        }else if (device instanceof VoltageSensor){
-            monitor = new VoltageSensorMonitor(name, (VoltageSensor) device);
+        if (registered.containsKey(device)) return;
+        if (persistentRegistry != null) {
+            // monitors from registerCustomDevices come from this registrator's code
+            ClassLoader loader = monitorRegistry.classLoaderFor(device.getClass());
+            DeviceMonitor<?> kept = persistentRegistry.reuse(device, loader != null ? loader : getClass().getClassLoader());
+            if (kept != null) {
+                registered.put(device, kept);
+                faultManager.register(kept);
+                return;
+            }
         }
-        else{
+        String name = nameOf(device);
+        if (name == null) return;
+
+        DeviceMonitor<?> monitor = monitorRegistry.create(name, device);
+        if (monitor == null) {
             monitor = registerCustomDevices(device);
         }
+        if (monitor != null && persistentRegistry != null) {
+            persistentRegistry.store(device, monitor);
+        }
 
         if (monitor != null) {
+            registered.put(device, monitor);
             faultManager.register(monitor);
-            faultManager.getLoggingStream().log(LoggingStream.LogLevel.INFO,"Registered Device with the name of {"+name+"}, with monitor type: "+monitor.getDeviceType());
+            if (faultManager.getLoggingStream() != null) {
+                faultManager.getLoggingStream().log(LoggingStream.LogLevel.INFO, "Registered Device with the name of {}, with monitor type: {}", name, monitor.getDeviceType());
+            }
+        }
+    }
+
+    private String nameOf(HardwareDevice device) {
+        if (!namesIndexed) {
+            indexNames();
+        }
+        String name = names.get(device);
+        // devices added to the map later, or sharing their name with another device, are looked up one by one
+        if (name == null && !names.containsKey(device)) {
+            Set<String> deviceNames = hardwareMap.getNamesOf(device);
+            name = deviceNames.isEmpty() ? null : deviceNames.iterator().next();
+            names.put(device, name);
+        }
+        return name;
+    }
+
+    // getNamesOf scans the whole map, so calling it per device made registration quadratic; one pass over the names instead
+    private void indexNames() {
+        namesIndexed = true;
+        for (String name : hardwareMap.getAllNames(HardwareDevice.class)) {
+            HardwareDevice device = hardwareMap.tryGet(HardwareDevice.class, name);
+            if (device != null && !names.containsKey(device)) {
+                names.put(device, name);
+            }
         }
     }
 
     /**
-     * Override this method to register custom device types. Example: ```java if (device instanceof MyCustomSensor) { return new MyCustomSensorMonitor(name, (MyCustomSensor) device);} return null;```
+     * Override this method to register custom device types. Called only for devices no {@link MonitorRegistry} factory handles; registering a factory is usually simpler. Example: ```java if (device instanceof MyCustomSensor) { return new MyCustomSensorMonitor(name, (MyCustomSensor) device);} return null;```
      *
      * @param device The hardware device to create a monitor for
      * @return A device monitor, or null if unsupported
@@ -113,14 +146,64 @@ public abstract class DeviceRegistrator {
     }
 
     /**
-     * Registers all supported devices from the hardware map.
+     * Registers all supported devices from the hardware map in a single pass, indexing every device's name in one pass over the map first, and logs how long it took.
      */
     public void registerAllDevices(){
-        registerAllDevicesOfType(DcMotorEx.class);
-        registerAllDevicesOfType(DcMotor.class);
-        registerAllDevicesOfType(CRServo.class);
-        registerAllMotorsOfType(CRServoImpl.class);
-        registerAllMotorsOfType(CRServoImplEx.class);
-        registerAllDevicesOfType(HardwareDevice.class);
+        long start = System.nanoTime();
+        int before = registered.size();
+        for (HardwareDevice device : hardwareMap) {
+            registerDevice(device);
+        }
+        lastRegistrationNanos = System.nanoTime() - start;
+        if (faultManager.getLoggingStream() != null) {
+            int count = registered.size() - before;
+            faultManager.getLoggingStream().log(LoggingStream.LogLevel.INFO, () -> "Registered " + count + " of " + hardwareMap.size() + " devices in " + (lastRegistrationNanos / 1000) / 1000.0 + "ms");
+        }
+    }
+
+    /**
+     * Gets the monitor created for a device.
+     *
+     * @param device The hardware device
+     * @return Its monitor, or null if the device was not registered
+     */
+    public DeviceMonitor<?> getMonitorFor(HardwareDevice device) {
+        return registered.get(device);
+    }
+
+    /**
+     * Gets the number of devices registered so far.
+     *
+     * @return Registered device count
+     */
+    public int getRegisteredCount() {
+        return registered.size();
+    }
+
+    /**
+     * Gets the registry monitors are chosen from.
+     *
+     * @return The monitor registry
+     */
+    public MonitorRegistry getMonitorRegistry() {
+        return monitorRegistry;
+    }
+
+    /**
+     * Gets the registry monitors are kept in across OpModes.
+     *
+     * @return The persistent registry, or null if persistence was disabled when this registrator was created
+     */
+    public PersistentMonitorRegistry getPersistentRegistry() {
+        return persistentRegistry;
+    }
+
+    /**
+     * Gets how long the last {@link #registerAllDevices()} took.
+     *
+     * @return Registration time in nanoseconds, 0 if it has not run
+     */
+    public long getLastRegistrationNanos() {
+        return lastRegistrationNanos;
     }
 }
\ No newline at end of file
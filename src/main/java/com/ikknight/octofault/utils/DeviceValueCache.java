@@ -0,0 +1,245 @@
+package com.ikknight.octofault.utils;
+
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Per-tick cache of values read from devices, shared by monitors and user code so each value is read from the hardware at most once per tick. Values are grouped in entries keyed by device and name; one entry holds everything a single hardware call returns, for example yaw, pitch and roll. The first read of an entry in a tick calls its reader (a miss), later reads in the same tick return the cached values (hits). {@link #beginTick()} invalidates every entry in O(1).
+ * <p>
+ * The built-in monitors read through the cache of the {@link com.ikknight.octofault.core.FaultManager} they are registered with, under their channel names ({@code "position"} and {@code "velocity"} of a motor, {@code "distance"}, {@code "voltage"}...) or a group name for multi-value reads ({@code "orientation"} and {@code "colors"}). The manager starts a new tick at the start of every update, so call {@link com.ikknight.octofault.Octofault#update()} at the top of the loop and read through the cache after it:
+ * {@code double position = cache.get(motor, "position");}
+ */
+public final class DeviceValueCache {
+
+    /**
+     * Reads an entry's values from the hardware.
+     */
+    public interface Reader {
+        /**
+         * Reads the device.
+         *
+         * @param values Array to fill, sized for the entry
+         */
+        void read(double[] values);
+    }
+
+    /**
+     * Values from one hardware read, refreshed at most once per tick. Entries are safe to read from several threads; concurrent reads in a new tick wait for the one hardware read.
+     */
+    public static final class Entry {
+        private final DeviceValueCache cache;
+        private final Reader reader;
+        private final double[] values;
+        private long tick = -1;
+        private long hits = 0;
+        private long misses = 0;
+
+        private Entry(DeviceValueCache cache, int size, Reader reader) {
+            this.cache = cache;
+            this.reader = reader;
+            this.values = new double[size];
+            Arrays.fill(values, Double.NaN);
+        }
+
+        /**
+         * Gets the first value, reading the device if it was not read this tick.
+         *
+         * @return The value
+         */
+        public double get() {
+            return get(0);
+        }
+
+        /**
+         * Gets a value, reading the device if it was not read this tick. A reader throwing leaves the entry stale, so the next get reads again.
+         *
+         * @param index Value in [0, {@link #size()})
+         * @return The value
+         */
+        public synchronized double get(int index) {
+            if (cache != null && tick == cache.tick) {
+                hits++;
+            } else {
+                misses++;
+                reader.read(values);
+                if (cache != null) tick = cache.tick;
+            }
+            return values[index];
+        }
+
+        /**
+         * Gets the number of values in the entry.
+         *
+         * @return Value count
+         */
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * Gets the number of reads served from the cache.
+         *
+         * @return Hit count
+         */
+        public synchronized long getHitCount() {
+            return hits;
+        }
+
+        /**
+         * Gets the number of reads that went to the hardware.
+         *
+         * @return Miss count
+         */
+        public synchronized long getMissCount() {
+            return misses;
+        }
+
+        private synchronized void resetCounters() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    private final Map<HardwareDevice, Map<String, Entry>> entries = new IdentityHashMap<>();
+    private volatile long tick = 0;
+
+    /**
+     * Creates an entry that is not cached: every get reads the device. Used by monitors that are not registered with a cache.
+     *
+     * @param size Number of values the reader fills
+     * @param reader Reads the device
+     * @return The entry
+     */
+    public static Entry uncached(int size, Reader reader) {
+        return new Entry(null, size, reader);
+    }
+
+    /**
+     * Gets the entry for a device value, creating it with a reader if it does not exist yet. Call while setting up, not every tick.
+     *
+     * @param device The device
+     * @param key Name of the value or group of values
+     * @param size Number of values the reader fills
+     * @param reader Reads the device, used only if the entry is created
+     * @return The shared entry
+     */
+    public synchronized Entry entry(HardwareDevice device, String key, int size, Reader reader) {
+        Map<String, Entry> deviceEntries = entries.get(device);
+        if (deviceEntries == null) {
+            deviceEntries = new HashMap<>();
+            entries.put(device, deviceEntries);
+        }
+        Entry entry = deviceEntries.get(key);
+        if (entry == null) {
+            entry = new Entry(this, size, reader);
+            deviceEntries.put(key, entry);
+        } else if (entry.size() < size) {
+            throw new IllegalArgumentException("Entry " + key + " has " + entry.size() + " values, " + size + " requested");
+        }
+        return entry;
+    }
+
+    /**
+     * Finds the entry for a device value.
+     *
+     * @param device The device
+     * @param key Name of the value or group of values
+     * @return The entry, or null if nobody reads that value through the cache
+     */
+    public synchronized Entry find(HardwareDevice device, String key) {
+        Map<String, Entry> deviceEntries = entries.get(device);
+        return deviceEntries == null ? null : deviceEntries.get(key);
+    }
+
+    /**
+     * Gets the first value of an entry, reading the device if it was not read this tick. Looks the entry up on every call; keep the result of {@link #find} on hot paths.
+     *
+     * @param device The device
+     * @param key Name of the value or group of values
+     * @return The value, NaN if there is no such entry
+     */
+    public double get(HardwareDevice device, String key) {
+        return get(device, key, 0);
+    }
+
+    /**
+     * Gets a value of an entry, reading the device if it was not read this tick.
+     *
+     * @param device The device
+     * @param key Name of the value or group of values
+     * @param index Value in the entry
+     * @return The value, NaN if there is no such entry
+     */
+    public double get(HardwareDevice device, String key, int index) {
+        Entry entry = find(device, key);
+        return entry == null ? Double.NaN : entry.get(index);
+    }
+
+    /**
+     * Starts a new tick, so the next read of every entry goes to the hardware.
+     */
+    public void beginTick() {
+        tick++;
+    }
+
+    /**
+     * Gets the current tick.
+     *
+     * @return Number of ticks started
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the number of reads served from the cache, over every entry.
+     *
+     * @return Total hit count
+     */
+    public synchronized long getHitCount() {
+        long total = 0;
+        for (Map<String, Entry> deviceEntries : entries.values()) {
+            for (Entry entry : deviceEntries.values()) {
+                total += entry.getHitCount();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of reads that went to the hardware, over every entry.
+     *
+     * @return Total miss count
+     */
+    public synchronized long getMissCount() {
+        long total = 0;
+        for (Map<String, Entry> deviceEntries : entries.values()) {
+            for (Entry entry : deviceEntries.values()) {
+                total += entry.getMissCount();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Resets the hit and miss counters of every entry.
+     */
+    public synchronized void resetCounters() {
+        for (Map<String, Entry> deviceEntries : entries.values()) {
+            for (Entry entry : deviceEntries.values()) {
+                entry.resetCounters();
+            }
+        }
+    }
+
+    /**
+     * Removes every entry. Monitors keep the entries they already hold until registered again.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
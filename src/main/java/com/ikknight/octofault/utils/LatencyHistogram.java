@@ -0,0 +1,153 @@
+package com.ikknight.octofault.utils;
+
+/**
+ * Fixed-memory log-linear histogram of durations in nanoseconds. Each power of two is split into 8 buckets, so every reported percentile is within 12.5% of the true value, and recording is a few integer operations with no allocation. Values above about 18 minutes land in the last bucket.
+ * <p>
+ * Written by a single thread; other threads may read it, seeing counts that are at most one sample behind.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private volatile long count = 0;
+    private long total = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos Duration in nanoseconds, negative values count as 0
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[indexOf(nanos)]++;
+        total += nanos;
+        if (nanos < min) min = nanos;
+        if (nanos > max) max = nanos;
+        count++;
+    }
+
+    /**
+     * Gets the number of recorded durations.
+     *
+     * @return Sample count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the shortest recorded duration.
+     *
+     * @return Minimum in nanoseconds, 0 if empty
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Gets the longest recorded duration.
+     *
+     * @return Maximum in nanoseconds, 0 if empty
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the average recorded duration.
+     *
+     * @return Mean in nanoseconds, 0 if empty
+     */
+    public double getMean() {
+        long n = count;
+        return n == 0 ? 0 : total / (double) n;
+    }
+
+    /**
+     * Gets the duration below which the given fraction of samples fall.
+     *
+     * @param percentile Percentile in [0, 100]
+     * @return Upper bound of the bucket holding the percentile, in nanoseconds, never above {@link #getMax()}
+     */
+    public long getPercentile(double percentile) {
+        long n = count;
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100.0 * n);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == BUCKETS - 1 ? max : Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the median duration.
+     *
+     * @return p50 in nanoseconds
+     */
+    public long getP50() {
+        return getPercentile(50);
+    }
+
+    /**
+     * Gets the 95th percentile duration.
+     *
+     * @return p95 in nanoseconds
+     */
+    public long getP95() {
+        return getPercentile(95);
+    }
+
+    /**
+     * Gets the 99th percentile duration.
+     *
+     * @return p99 in nanoseconds
+     */
+    public long getP99() {
+        return getPercentile(99);
+    }
+
+    /**
+     * Clears all recorded durations.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+        count = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.1fus p95=%.1fus p99=%.1fus max=%.1fus",
+                getCount(), getP50() / 1000.0, getP95() / 1000.0, getP99() / 1000.0, getMax() / 1000.0);
+    }
+
+    private static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -1,8 +1,11 @@
 package com.ikknight.octofault.utils;
 
+import java.util.function.Supplier;
+
 /**
  * Base class for logging fault messages to different outputs.
- * Extend this class to create custom logging implementations.
+ * Extend this class and implement {@link #write(LogLevel, String)} to create custom logging implementations.
+ * Every log method drops messages below the {@link #setMinimumLevel(LogLevel) minimum level} before they are formatted or written; messages without a level count as {@link LogLevel#INFO}. Log through the {@link Supplier} or {@code {}}-pattern overloads so a dropped message costs only a level comparison, without building its string.
  */
 public abstract class LoggingStream {
 
@@ -21,12 +24,98 @@ public abstract class LoggingStream {
         }
     }
 
+    private volatile LogLevel minimumLevel = LogLevel.DEBUG;
+
+    /**
+     * Sets the lowest severity that is logged. For example {@link LogLevel#WARNING} during matches keeps per-tick INFO lines from being built or sent.
+     *
+     * @param minimumLevel The minimum level
+     */
+    public void setMinimumLevel(LogLevel minimumLevel) {
+        this.minimumLevel = minimumLevel;
+    }
+
+    /**
+     * Gets the lowest severity that is logged.
+     *
+     * @return The minimum level, {@link LogLevel#DEBUG} by default
+     */
+    public LogLevel getMinimumLevel() {
+        return minimumLevel;
+    }
+
+    /**
+     * Checks whether messages of a severity are logged. Guard expensive message building with it when the overloads below do not fit.
+     *
+     * @param level The severity level
+     * @return True if the level is at or above the minimum level
+     */
+    public boolean isLoggable(LogLevel level) {
+        return level.compareTo(minimumLevel) >= 0;
+    }
+
     /**
-     * Logs a message.
+     * Logs a message built only if its level is logged.
+     *
+     * @param level The severity level
+     * @param message Builds the message
+     */
+    public final void log(LogLevel level, Supplier<String> message) {
+        if (isLoggable(level)) {
+            write(level, message.get());
+        }
+    }
+
+    /**
+     * Logs a message with one argument, formatted only if its level is logged.
+     *
+     * @param level The severity level
+     * @param pattern Message with {@code {}} where the argument goes
+     * @param arg The argument
+     */
+    public final void log(LogLevel level, String pattern, Object arg) {
+        if (isLoggable(level)) {
+            write(level, format(pattern, arg, null, 1));
+        }
+    }
+
+    /**
+     * Logs a message with two arguments, formatted only if its level is logged.
+     *
+     * @param level The severity level
+     * @param pattern Message with {@code {}} where each argument goes, in order
+     * @param arg1 The first argument
+     * @param arg2 The second argument
+     */
+    public final void log(LogLevel level, String pattern, Object arg1, Object arg2) {
+        if (isLoggable(level)) {
+            write(level, format(pattern, arg1, arg2, 2));
+        }
+    }
+
+    private static String format(String pattern, Object arg1, Object arg2, int argCount) {
+        StringBuilder builder = new StringBuilder(pattern.length() + 16);
+        int used = 0;
+        int from = 0;
+        int at;
+        while (used < argCount && (at = pattern.indexOf("{}", from)) >= 0) {
+            builder.append(pattern, from, at).append(used == 0 ? arg1 : arg2);
+            used++;
+            from = at + 2;
+        }
+        return builder.append(pattern, from, pattern.length()).toString();
+    }
+
+    /**
+     * Logs a message without a level, filtered as {@link LogLevel#INFO}.
      *
      * @param message The message to log
      */
-    public abstract void log(String message);
+    public final void log(String message) {
+        if (isLoggable(LogLevel.INFO)) {
+            write(null, message);
+        }
+    }
 
     /**
      * Logs a message with specified severity level.
@@ -34,20 +123,71 @@ public abstract class LoggingStream {
      * @param level The severity level
      * @param message The message to log
      */
-    public abstract void log(LogLevel level, String message);
+    public final void log(LogLevel level, String message) {
+        if (isLoggable(level)) {
+            write(level, message);
+        }
+    }
 
     /**
-     * Logs an object by converting it to string.
+     * Logs an object without a level, filtered as {@link LogLevel#INFO}. The object is only converted if the message is logged.
      *
      * @param object The object to log
      */
-    public abstract void log(Object object);
+    public final void log(Object object) {
+        if (isLoggable(LogLevel.INFO)) {
+            writeObject(null, object);
+        }
+    }
 
     /**
-     * Logs an object with specified severity level.
+     * Logs an object with specified severity level. The object is only converted if the message is logged.
      *
      * @param level The severity level
      * @param object The object to log
      */
-    public abstract void log(LogLevel level, Object object);
-}
\ No newline at end of file
+    public final void log(LogLevel level, Object object) {
+        if (isLoggable(level)) {
+            writeObject(level, object);
+        }
+    }
+
+    /**
+     * Logs a batch of messages in one call, skipping those below the minimum level. Override this when the output can send several lines at once (for example in a single dashboard packet), checking {@link #isLoggable(LogLevel)} the same way; the default writes each message on its own.
+     *
+     * @param levels Severity of each message, null entries are logged without a level
+     * @param messages The messages to log
+     * @param count Number of entries to log from the start of both arrays
+     */
+    public void logBatch(LogLevel[] levels, String[] messages, int count) {
+        for (int i = 0; i < count; i++) {
+            if (isLoggable(levels[i] == null ? LogLevel.INFO : levels[i])) {
+                write(levels[i], messages[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes a message that passed the level check to the output.
+     *
+     * @param level The severity level, or null for a message logged without one
+     * @param message The message
+     */
+    protected abstract void write(LogLevel level, String message);
+
+    /**
+     * Writes an object that passed the level check to the output. Converts it with {@link String#valueOf(Object)} by default.
+     *
+     * @param level The severity level, or null for an object logged without one
+     * @param object The object
+     */
+    protected void writeObject(LogLevel level, Object object) {
+        write(level, String.valueOf(object));
+    }
+
+    /**
+     * Releases what the stream holds, such as files or worker threads. Streams wrapping others close them too. Does nothing by default.
+     */
+    public void close() {
+    }
+}
@@ -0,0 +1,237 @@
+package com.ikknight.octofault.utils;
+
+import com.ikknight.octofault.utils.monitors.ColorSensorMonitor;
+import com.ikknight.octofault.utils.monitors.DcMotorMonitor;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+import com.ikknight.octofault.utils.monitors.DistanceSensorMonitor;
+import com.ikknight.octofault.utils.monitors.IMUMonitor;
+import com.ikknight.octofault.utils.monitors.ServoMonitor;
+import com.ikknight.octofault.utils.monitors.TouchSensorMonitor;
+import com.ikknight.octofault.utils.monitors.VoltageSensorMonitor;
+import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.DistanceSensor;
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.TouchSensor;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps device classes and interfaces to the factories creating their monitors. For each concrete device class the best factory is resolved once and cached: highest priority first, then the registration closest to the class in its hierarchy, then the earliest registration. Later registrations for the same class and priority replace earlier ones, so user code can replace a built-in monitor or add one for a new device type without subclassing {@link DeviceRegistrator}:
+ * {@code MonitorRegistry.getDefault().register(MySensor.class, MySensorMonitor::new);}
+ */
+public class MonitorRegistry {
+
+    /**
+     * Creates a monitor for a device.
+     *
+     * @param <T> The device type handled
+     */
+    public interface MonitorFactory<T extends HardwareDevice> {
+        /**
+         * Creates a monitor.
+         *
+         * @param name Device name from the hardware map
+         * @param device The device to monitor
+         * @return The monitor, or null to leave the device unmonitored
+         */
+        DeviceMonitor<?> create(String name, T device);
+    }
+
+    /**
+     * Priority of factories registered without one. Higher than every built-in monitor.
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    /**
+     * Priority of the built-in monitors. Each built-in is one lower than the previous, keeping the order of the original type checks for devices implementing several interfaces (a color sensor that is also a distance sensor gets a distance monitor).
+     */
+    public static final int BUILT_IN_PRIORITY = -100;
+
+    private static final MonitorRegistry DEFAULT = new MonitorRegistry();
+
+    private final List<Registration> registrations = new ArrayList<>();
+    private final Map<Class<?>, Registration> resolved = new HashMap<>();
+    private long order = 0;
+
+    /**
+     * Creates a registry with the built-in monitors registered.
+     */
+    public MonitorRegistry() {
+        register(DcMotorSimple.class, BUILT_IN_PRIORITY, DcMotorMonitor::new);
+        register(Servo.class, BUILT_IN_PRIORITY - 1, ServoMonitor::new);
+        register(IMU.class, BUILT_IN_PRIORITY - 2, IMUMonitor::new);
+        // above DistanceSensor: color sensors like the RevColorSensorV3 are both, and the color monitor checks distance too
+        register(ColorSensor.class, BUILT_IN_PRIORITY - 3, ColorSensorMonitor::new);
+        register(DistanceSensor.class, BUILT_IN_PRIORITY - 4, DistanceSensorMonitor::new);
+        register(TouchSensor.class, BUILT_IN_PRIORITY - 5, TouchSensorMonitor::new);
+        register(VoltageSensor.class, BUILT_IN_PRIORITY - 6, VoltageSensorMonitor::new);
+    }
+
+    /**
+     * Gets the registry used by registrators created without one, including those created by {@link com.ikknight.octofault.Octofault}. Register factories on it before constructing Octofault.
+     *
+     * @return The shared registry
+     */
+    public static MonitorRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Registers a factory at {@link #DEFAULT_PRIORITY}, replacing any factory for the same class at that priority.
+     *
+     * @param deviceClass Device class or interface handled, including its subclasses
+     * @param factory Factory creating the monitor
+     * @param <T> The device type
+     * @return This registry, for chaining
+     */
+    public <T extends HardwareDevice> MonitorRegistry register(Class<T> deviceClass, MonitorFactory<? super T> factory) {
+        return register(deviceClass, DEFAULT_PRIORITY, factory);
+    }
+
+    /**
+     * Registers a factory, replacing any factory for the same class at the same priority.
+     *
+     * @param deviceClass Device class or interface handled, including its subclasses
+     * @param priority Priority over factories for other classes the device also is; higher wins
+     * @param factory Factory creating the monitor
+     * @param <T> The device type
+     * @return This registry, for chaining
+     */
+    public synchronized <T extends HardwareDevice> MonitorRegistry register(Class<T> deviceClass, int priority, MonitorFactory<? super T> factory) {
+        for (int i = 0; i < registrations.size(); i++) {
+            Registration registration = registrations.get(i);
+            if (registration.deviceClass == deviceClass && registration.priority == priority) {
+                registrations.remove(i);
+                break;
+            }
+        }
+        registrations.add(new Registration(deviceClass, priority, order++, factory));
+        resolved.clear();
+        return this;
+    }
+
+    /**
+     * Removes every factory registered for a class, at any priority.
+     *
+     * @param deviceClass Device class or interface
+     * @return This registry, for chaining
+     */
+    public synchronized MonitorRegistry unregister(Class<? extends HardwareDevice> deviceClass) {
+        for (int i = registrations.size() - 1; i >= 0; i--) {
+            if (registrations.get(i).deviceClass == deviceClass) {
+                registrations.remove(i);
+            }
+        }
+        resolved.clear();
+        return this;
+    }
+
+    /**
+     * Creates a monitor for a device with the best factory for its class.
+     *
+     * @param name Device name from the hardware map
+     * @param device The device
+     * @return The monitor, or null if no factory handles the device
+     */
+    public DeviceMonitor<?> create(String name, HardwareDevice device) {
+        Registration registration = resolve(device.getClass());
+        return registration == null ? null : registration.factory.create(name, device);
+    }
+
+    /**
+     * Gets the class loader of the factory that would create a device's monitor, which after a hot reload is the loader of the reloaded code.
+     *
+     * @param deviceClass Concrete device class
+     * @return The factory's class loader, or null if no factory handles the class
+     */
+    ClassLoader classLoaderFor(Class<?> deviceClass) {
+        Registration registration = resolve(deviceClass);
+        return registration == null ? null : registration.factory.getClass().getClassLoader();
+    }
+
+    /**
+     * Checks whether any factory handles a device class.
+     *
+     * @param deviceClass Concrete device class
+     * @return True if {@link #create} would use a factory for it
+     */
+    public boolean handles(Class<? extends HardwareDevice> deviceClass) {
+        return resolve(deviceClass) != null;
+    }
+
+    /**
+     * Gets the number of device classes resolved so far. Registration cost grows with this, not with the number of devices.
+     *
+     * @return Cached class count
+     */
+    public synchronized int getResolvedClassCount() {
+        return resolved.size();
+    }
+
+    private synchronized Registration resolve(Class<?> deviceClass) {
+        if (resolved.containsKey(deviceClass)) {
+            return resolved.get(deviceClass);
+        }
+
+        // breadth-first over superclasses and interfaces gives each supertype its shortest distance
+        Map<Class<?>, Integer> distances = new HashMap<>();
+        ArrayDeque<Class<?>> queue = new ArrayDeque<>();
+        distances.put(deviceClass, 0);
+        queue.add(deviceClass);
+        while (!queue.isEmpty()) {
+            Class<?> type = queue.poll();
+            int distance = distances.get(type);
+            Class<?> superclass = type.getSuperclass();
+            if (superclass != null && !distances.containsKey(superclass)) {
+                distances.put(superclass, distance + 1);
+                queue.add(superclass);
+            }
+            for (Class<?> implemented : type.getInterfaces()) {
+                if (!distances.containsKey(implemented)) {
+                    distances.put(implemented, distance + 1);
+                    queue.add(implemented);
+                }
+            }
+        }
+
+        Registration best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Registration registration : registrations) {
+            Integer distance = distances.get(registration.deviceClass);
+            if (distance == null) continue;
+            if (best == null
+                    || registration.priority > best.priority
+                    || (registration.priority == best.priority && distance < bestDistance)
+                    || (registration.priority == best.priority && distance == bestDistance && registration.order < best.order)) {
+                best = registration;
+                bestDistance = distance;
+            }
+        }
+        resolved.put(deviceClass, best);
+        return best;
+    }
+
+    private static final class Registration {
+        final Class<?> deviceClass;
+        final int priority;
+        final long order;
+        final MonitorFactory<HardwareDevice> factory;
+
+        @SuppressWarnings("unchecked")
+        Registration(Class<?> deviceClass, int priority, long order, MonitorFactory<?> factory) {
+            this.deviceClass = deviceClass;
+            this.priority = priority;
+            this.order = order;
+            // only ever called with instances of deviceClass
+            this.factory = (MonitorFactory<HardwareDevice>) factory;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.ikknight.octofault.utils.loggingstreams;
+
+import com.ikknight.octofault.utils.LoggingStream;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logging stream decorator that moves logging off the caller's thread. Messages are put on a bounded lock-free queue and a worker thread drains them periodically, handing each batch to the wrapped stream in a single {@link LoggingStream#logBatch} call (one telemetry packet for {@link TelemetryLoggingStream}). Objects are converted to strings on the calling thread, since they may change before the worker gets to them. The worker runs until {@link #close()}, which {@link com.ikknight.octofault.Octofault} calls when the OpMode stops if it logs to this stream.
+ *
+ * @see OverflowPolicy
+ */
+public class AsyncLoggingStream extends LoggingStream {
+
+    /**
+     * What to do when a message arrives and the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the oldest queued message to make room. */
+        DROP_OLDEST,
+        /** Discard the queued message with the lowest severity, or the new message if nothing queued is less severe. */
+        DROP_LOWEST_SEVERITY,
+        /** Wait until the worker makes room. Never blocks the worker thread itself. */
+        BLOCK
+    }
+
+    private static final int LEVELS = LogLevel.values().length;
+
+    private final LoggingStream downstream;
+    private final OverflowPolicy policy;
+    private final int capacity;
+    private final long flushIntervalNanos;
+
+    // one queue per severity so DROP_LOWEST_SEVERITY never has to search, merged back into order by sequence number
+    private final Ring[] rings = new Ring[LEVELS];
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private final Event[] batch;
+    private final LogLevel[] batchLevels;
+    private final String[] batchMessages;
+
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * Creates an async stream with a 256 message queue, {@link OverflowPolicy#DROP_LOWEST_SEVERITY} and a 50ms flush interval.
+     *
+     * @param downstream The stream to forward batches to
+     */
+    public AsyncLoggingStream(LoggingStream downstream) {
+        this(downstream, 256, OverflowPolicy.DROP_LOWEST_SEVERITY, 50);
+    }
+
+    /**
+     * Creates an async stream and starts its worker thread.
+     *
+     * @param downstream The stream to forward batches to
+     * @param capacity Maximum number of queued messages
+     * @param policy What to do when the queue is full
+     * @param flushIntervalMs How often the worker drains the queue in milliseconds
+     */
+    public AsyncLoggingStream(LoggingStream downstream, int capacity, OverflowPolicy policy, long flushIntervalMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.downstream = downstream;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.flushIntervalNanos = Math.max(1, flushIntervalMs) * 1_000_000L;
+        for (int i = 0; i < LEVELS; i++) {
+            rings[i] = new Ring(capacity);
+        }
+        this.batch = new Event[capacity];
+        this.batchLevels = new LogLevel[capacity];
+        this.batchMessages = new String[capacity];
+
+        worker = new Thread(this::run, "Octofault-AsyncLog");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    protected void write(LogLevel level, String message) {
+        enqueue(level, message);
+    }
+
+    @Override
+    public void logBatch(LogLevel[] levels, String[] messages, int count) {
+        for (int i = 0; i < count; i++) {
+            if (isLoggable(levels[i] == null ? LogLevel.INFO : levels[i])) {
+                enqueue(levels[i], messages[i]);
+            }
+        }
+    }
+
+    private void enqueue(LogLevel level, String message) {
+        if (!running) {
+            // closed, nothing will drain the queue any more
+            dropped.incrementAndGet();
+            return;
+        }
+        Event event = new Event(sequence.getAndIncrement(), level, message);
+        int rank = rank(level);
+        while (true) {
+            if (size.incrementAndGet() <= capacity) {
+                if (rings[rank].offer(event)) {
+                    enqueued.incrementAndGet();
+                } else {
+                    // the slot is still being freed by a concurrent poll
+                    size.decrementAndGet();
+                    dropped.incrementAndGet();
+                }
+                return;
+            }
+            size.decrementAndGet();
+
+            switch (policy) {
+                case DROP_OLDEST:
+                    if (pollOldest() != null) {
+                        size.decrementAndGet();
+                        dropped.incrementAndGet();
+                    }
+                    break;
+                case DROP_LOWEST_SEVERITY:
+                    if (dropLower(rank)) break;
+                    dropped.incrementAndGet();
+                    return;
+                case BLOCK:
+                    if (Thread.currentThread() == worker || !running) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                    LockSupport.parkNanos(this, 100_000L);
+                    break;
+            }
+        }
+    }
+
+    private boolean dropLower(int rank) {
+        for (int r = 0; r < rank; r++) {
+            if (rings[r].poll() != null) {
+                size.decrementAndGet();
+                dropped.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Event pollOldest() {
+        int oldest = -1;
+        long oldestSequence = Long.MAX_VALUE;
+        for (int r = 0; r < LEVELS; r++) {
+            long head = rings[r].peekSequence();
+            if (head >= 0 && head < oldestSequence) {
+                oldestSequence = head;
+                oldest = r;
+            }
+        }
+        return oldest < 0 ? null : rings[oldest].poll();
+    }
+
+    private static int rank(LogLevel level) {
+        return level == null ? LogLevel.INFO.ordinal() : level.ordinal();
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            drain();
+            if (downstream instanceof TelemetryLoggingStream) {
+                // status rows held back by the rate limit go out without waiting for another message
+                ((TelemetryLoggingStream) downstream).flushIfDue();
+            }
+        }
+        drain();
+    }
+
+    private void drain() {
+        int count = 0;
+        for (int r = 0; r < LEVELS && count < batch.length; r++) {
+            Event event;
+            while (count < batch.length && (event = rings[r].poll()) != null) {
+                batch[count++] = event;
+            }
+        }
+        if (count == 0) return;
+        size.addAndGet(-count);
+
+        // queues are individually ordered, restore the global order; batches are small so insertion sort is fine
+        for (int i = 1; i < count; i++) {
+            Event event = batch[i];
+            int j = i - 1;
+            while (j >= 0 && batch[j].sequence > event.sequence) {
+                batch[j + 1] = batch[j];
+                j--;
+            }
+            batch[j + 1] = event;
+        }
+        for (int i = 0; i < count; i++) {
+            batchLevels[i] = batch[i].level;
+            batchMessages[i] = batch[i].message;
+            batch[i] = null;
+        }
+
+        try {
+            downstream.logBatch(batchLevels, batchMessages, count);
+        } catch (RuntimeException e) {
+            // a broken sink must not kill the worker
+            dropped.addAndGet(count);
+        }
+        batches.incrementAndGet();
+        for (int i = 0; i < count; i++) {
+            batchMessages[i] = null;
+        }
+    }
+
+    /**
+     * Stops the worker thread after flushing everything still queued, then closes the wrapped stream. Messages logged afterwards are dropped.
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        downstream.close();
+    }
+
+    /**
+     * Gets the wrapped stream.
+     *
+     * @return The downstream logging stream
+     */
+    public LoggingStream getDownstream() {
+        return downstream;
+    }
+
+    /**
+     * Gets the number of messages accepted onto the queue.
+     *
+     * @return Enqueued message count
+     */
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    /**
+     * Gets the number of messages discarded because the queue was full or the wrapped stream failed.
+     *
+     * @return Dropped message count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the number of batches handed to the wrapped stream.
+     *
+     * @return Batch count
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Gets the number of messages currently queued.
+     *
+     * @return Queue size
+     */
+    public int getQueueSize() {
+        return Math.max(0, size.get());
+    }
+
+    private static final class Event {
+        final long sequence;
+        final LogLevel level;
+        final String message;
+
+        Event(long sequence, LogLevel level, String message) {
+            this.sequence = sequence;
+            this.level = level;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Bounded lock-free multi-producer multi-consumer queue (Vyukov). Each slot carries a sequence number telling producers and consumers whose turn it is.
+     */
+    private static final class Ring {
+        private final int mask;
+        private final AtomicLongArray turns;
+        private final AtomicReferenceArray<Event> slots;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        Ring(int minCapacity) {
+            int capacity = Integer.highestOneBit(Math.max(2, minCapacity - 1)) << 1;
+            mask = capacity - 1;
+            turns = new AtomicLongArray(capacity);
+            slots = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < capacity; i++) {
+                turns.set(i, i);
+            }
+        }
+
+        boolean offer(Event event) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) position & mask;
+                long difference = turns.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        slots.set(index, event);
+                        turns.set(index, position + 1);
+                        return true;
+                    }
+                } else if (difference < 0) {
+                    return false;
+                }
+                position = tail.get();
+            }
+        }
+
+        Event poll() {
+            long position = head.get();
+            while (true) {
+                int index = (int) position & mask;
+                long difference = turns.get(index) - (position + 1);
+                if (difference == 0) {
+                    if (head.compareAndSet(position, position + 1)) {
+                        Event event = slots.get(index);
+                        slots.set(index, null);
+                        turns.set(index, position + mask + 1);
+                        return event;
+                    }
+                } else if (difference < 0) {
+                    return null;
+                }
+                position = head.get();
+            }
+        }
+
+        long peekSequence() {
+            long position = head.get();
+            int index = (int) position & mask;
+            if (turns.get(index) != position + 1) return -1;
+            Event event = slots.get(index);
+            return event == null ? -1 : event.sequence;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ikknight.octofault.utils.loggingstreams;
+
+import com.ikknight.octofault.utils.LoggingStream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Logging stream fanning every message out to several sinks, for example telemetry, the dashboard and a file at the same time. Each sink sits behind its own {@link AsyncLoggingStream}, with its own bounded queue, severity filter, overflow policy, drop counter and worker thread. A slow file write or a stalled dashboard socket therefore only fills its own queue. It never holds back the other sinks or the thread logging. Logging costs one enqueue per sink that accepts the message's level.
+ * <p>
+ * The sinks' worker threads and files stay open until {@link #close()}, which also closes the sinks. When the stream is given to {@link com.ikknight.octofault.Octofault} it is closed when the OpMode stops; otherwise call close() at the end of the OpMode, or every run leaves its workers behind.
+ * {@code CompositeLoggingStream stream = new CompositeLoggingStream().addSink(new TelemetryLoggingStream(telemetry), LogLevel.WARNING).addSink(new FileLoggingStream(file), LogLevel.DEBUG); ... stream.close();}
+ *
+ * @see AsyncLoggingStream
+ */
+public class CompositeLoggingStream extends LoggingStream {
+
+    private final CopyOnWriteArrayList<AsyncLoggingStream> sinks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds a sink receiving every message, with a 256 message queue, {@link AsyncLoggingStream.OverflowPolicy#DROP_LOWEST_SEVERITY} and a 50ms flush interval.
+     *
+     * @param sink The stream to forward to
+     * @return This stream, for chaining
+     */
+    public CompositeLoggingStream addSink(LoggingStream sink) {
+        return addSink(sink, LogLevel.DEBUG);
+    }
+
+    /**
+     * Adds a sink receiving messages at or above a severity, with a 256 message queue, {@link AsyncLoggingStream.OverflowPolicy#DROP_LOWEST_SEVERITY} and a 50ms flush interval.
+     *
+     * @param sink The stream to forward to
+     * @param minimumLevel Lowest severity forwarded to the sink; messages without a level are filtered as INFO
+     * @return This stream, for chaining
+     */
+    public CompositeLoggingStream addSink(LoggingStream sink, LogLevel minimumLevel) {
+        addSink(sink, minimumLevel, 256, AsyncLoggingStream.OverflowPolicy.DROP_LOWEST_SEVERITY, 50);
+        return this;
+    }
+
+    /**
+     * Adds a sink with its own queue settings.
+     *
+     * @param sink The stream to forward to
+     * @param minimumLevel Lowest severity forwarded to the sink; messages without a level are filtered as INFO
+     * @param capacity Maximum number of messages queued for the sink
+     * @param policy What to do when the sink's queue is full; {@link AsyncLoggingStream.OverflowPolicy#BLOCK} lets a slow sink stall the logging thread
+     * @param flushIntervalMs How often the sink's queue is drained in milliseconds
+     * @return The sink's queue, for its counters
+     */
+    public AsyncLoggingStream addSink(LoggingStream sink, LogLevel minimumLevel, int capacity, AsyncLoggingStream.OverflowPolicy policy, long flushIntervalMs) {
+        AsyncLoggingStream queue = new AsyncLoggingStream(sink, capacity, policy, flushIntervalMs);
+        queue.setMinimumLevel(minimumLevel);
+        sinks.add(queue);
+        return queue;
+    }
+
+    /**
+     * Removes a sink, after flushing what is queued for it, and closes it.
+     *
+     * @param sink The stream passed to addSink
+     * @return True if the sink was found
+     */
+    public boolean removeSink(LoggingStream sink) {
+        for (AsyncLoggingStream queue : sinks) {
+            if (queue.getDownstream() == sink) {
+                sinks.remove(queue);
+                queue.close();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the queue of every sink, in the order they were added, with their enqueued, dropped and batch counters.
+     *
+     * @return Read-only list of sink queues
+     */
+    public List<AsyncLoggingStream> getSinks() {
+        return Collections.unmodifiableList(new ArrayList<>(sinks));
+    }
+
+    /**
+     * Gets the number of messages dropped over every sink.
+     *
+     * @return Total dropped message count
+     */
+    public long getDroppedCount() {
+        long total = 0;
+        for (AsyncLoggingStream queue : sinks) {
+            total += queue.getDroppedCount();
+        }
+        return total;
+    }
+
+    /**
+     * Checks whether any sink accepts a severity, so lazily built messages nobody would receive are not built.
+     *
+     * @param level The severity level
+     * @return True if the level is at or above this stream's minimum level and some sink's
+     */
+    @Override
+    public boolean isLoggable(LogLevel level) {
+        if (!super.isLoggable(level)) return false;
+        for (AsyncLoggingStream queue : sinks) {
+            if (queue.isLoggable(level)) return true;
+        }
+        return false;
+    }
+
+    // objects reach here already converted once by writeObject, so every sink gets the same text
+    @Override
+    protected void write(LogLevel level, String message) {
+        for (AsyncLoggingStream queue : sinks) {
+            if (level == null) {
+                queue.log(message);
+            } else {
+                queue.log(level, message);
+            }
+        }
+    }
+
+    /**
+     * Flushes and stops every sink's queue, then closes the sinks. Messages logged afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        for (AsyncLoggingStream queue : sinks) {
+            queue.close();
+        }
+    }
+}
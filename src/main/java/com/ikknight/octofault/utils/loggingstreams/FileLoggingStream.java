@@ -0,0 +1,108 @@
+package com.ikknight.octofault.utils.loggingstreams;
+
+import com.ikknight.octofault.utils.Clock;
+import com.ikknight.octofault.utils.LoggingStream;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Logging stream appending timestamped lines to a text file. Writes block on storage, so use it behind an {@link AsyncLoggingStream} or a {@link CompositeLoggingStream} sink rather than on the monitoring thread. Lines are buffered and written to storage when a batch ends or the stream is closed, so a batch costs one flush. Write failures are counted instead of thrown, and logging continues.
+ */
+public class FileLoggingStream extends LoggingStream {
+
+    /**
+     * Default log file, in the robot controller's data directory.
+     */
+    public static final File DEFAULT_FILE = new File(AppUtil.ROBOT_DATA_DIR, "octofault.log");
+
+    private final Writer writer;
+    private final long startMillis = Clock.millis();
+    private long failures = 0;
+
+    /**
+     * Creates a stream appending to {@link #DEFAULT_FILE}.
+     *
+     * @throws IOException If the file cannot be opened
+     */
+    public FileLoggingStream() throws IOException {
+        this(DEFAULT_FILE);
+    }
+
+    /**
+     * Creates a stream appending to a file, creating it and its directory if needed.
+     *
+     * @param file The log file
+     * @throws IOException If the file cannot be opened
+     */
+    public FileLoggingStream(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), UTF_8));
+    }
+
+    @Override
+    protected synchronized void write(LogLevel level, String message) {
+        try {
+            writeLine(level, message);
+        } catch (IOException e) {
+            failures++;
+        }
+    }
+
+    @Override
+    public synchronized void logBatch(LogLevel[] levels, String[] messages, int count) {
+        try {
+            for (int i = 0; i < count; i++) {
+                if (!isLoggable(levels[i] == null ? LogLevel.INFO : levels[i])) continue;
+                writeLine(levels[i], messages[i]);
+            }
+            writer.flush();
+        } catch (IOException e) {
+            failures++;
+        }
+    }
+
+    // lines start with the milliseconds since the stream was opened
+    private void writeLine(LogLevel level, String message) throws IOException {
+        writer.write(Long.toString(Clock.millis() - startMillis));
+        writer.write(' ');
+        if (level != null) {
+            writer.write(level.toString());
+            writer.write(": ");
+        }
+        writer.write(message);
+        writer.write('\n');
+    }
+
+    /**
+     * Gets the number of writes that failed.
+     *
+     * @return Failed write count
+     */
+    public synchronized long getFailureCount() {
+        return failures;
+    }
+
+    /**
+     * Flushes and closes the file. Messages logged afterwards are counted as failures.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            failures++;
+        }
+    }
+}
@@ -2,19 +2,39 @@ package com.ikknight.octofault.utils.loggingstreams;
 
 import com.acmerobotics.dashboard.FtcDashboard;
 import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+import com.ikknight.octofault.core.FaultListener;
+import com.ikknight.octofault.utils.Clock;
 import com.ikknight.octofault.utils.LoggingStream;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+import com.ikknight.octofault.utils.monitors.FaultRecord;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Logging stream that outputs to FTC telemetry and dashboard. This is the default logging stream implementation for Octofault. Messages are sent to both the standard telemetry output and the FTC Dashboard (if enabled).
+ * <p>
+ * With the {@link #enableStatusTable(double) status table} enabled, lines are no longer sent one by one. The stream keeps a table of keyed rows instead: one per monitor, kept up to date as a {@link FaultListener}, plus one per log level holding its latest message. Changed rows are flushed at most at a configured rate. On the Driver Station each row is a retained telemetry item, and only changed items are updated. The dashboard gets a single packet per flush, only when a row changed. That packet carries the whole table, because the dashboard shows only the latest packet.
  *
  * @see LoggingStream
  */
-public class TelemetryLoggingStream extends LoggingStream {
+public class TelemetryLoggingStream extends LoggingStream implements FaultListener {
     FtcDashboard dashboard;
     Telemetry telemetry;
 
+    // read without the lock by the logging and fault listener paths
+    private volatile boolean statusTable = false;
+    private long flushIntervalNanos = 0;
+    private long lastFlushNanos = 0;
+    private final Map<String, Row> rows = new LinkedHashMap<>();
+    private final List<Row> dirtyRows = new ArrayList<>();
+    private final List<Row> removedRows = new ArrayList<>();
+    private long flushCount = 0;
+
     /**
      * Creates a new TelemetryLoggingStream.
      *
@@ -29,42 +49,222 @@ public class TelemetryLoggingStream extends LoggingStream {
     }
 
     @Override
-    public void log(String message) {
-        telemetry.addLine(message);
+    protected void write(LogLevel level, String message) {
+        if (statusTable) {
+            setStatus(level == null ? "log" : level.toString(), message);
+            return;
+        }
+        String line = level == null ? message : level.toString()+": "+message;
+        telemetry.addLine(line);
         if (dashboard != null){
             TelemetryPacket packet = new TelemetryPacket();
-            packet.addLine(message);
+            packet.addLine(line);
             dashboard.sendTelemetryPacket(packet);
         }
     }
 
     @Override
-    public void log(LogLevel level, String message) {
-        telemetry.addLine(level.toString()+": "+message);
-        if (dashboard != null){
-            TelemetryPacket packet = new TelemetryPacket();
-            packet.addLine(level.toString()+": "+message);
+    protected void writeObject(LogLevel level, Object object) {
+        write(level, (level == null ? "OBJECT : " : "OBJECT GIVEN : ")+object.toString());
+    }
+
+    @Override
+    public void logBatch(LogLevel[] levels, String[] messages, int count) {
+        if (statusTable) {
+            super.logBatch(levels, messages, count);
+            return;
+        }
+        TelemetryPacket packet = dashboard != null ? new TelemetryPacket() : null;
+        int sent = 0;
+        for (int i = 0; i < count; i++) {
+            if (!isLoggable(levels[i] == null ? LogLevel.INFO : levels[i])) continue;
+            sent++;
+            String line = levels[i] == null ? messages[i] : levels[i].toString()+": "+messages[i];
+            telemetry.addLine(line);
+            if (packet != null){
+                packet.addLine(line);
+            }
+        }
+        if (packet != null && sent > 0){
             dashboard.sendTelemetryPacket(packet);
         }
     }
 
-    @Override
-    public void log(Object object) {
-        telemetry.addLine("OBJECT : "+object.toString());
-        if (dashboard != null){
+    /**
+     * Switches from sending every line to the keyed status table, flushed at most at the given rate. Register the stream as a fault listener to get one row per monitor, as {@link com.ikknight.octofault.Octofault#enableStatusTelemetry(double)} does.
+     *
+     * @param maxRateHz Maximum number of flushes per second, 0 for no limit
+     */
+    public synchronized void enableStatusTable(double maxRateHz) {
+        statusTable = true;
+        flushIntervalNanos = maxRateHz > 0 ? (long) (1e9 / maxRateHz) : 0;
+    }
+
+    /**
+     * Goes back to sending every line, and removes the status rows from the Driver Station.
+     */
+    public synchronized void disableStatusTable() {
+        statusTable = false;
+        for (Row row : rows.values()) {
+            if (row.item != null) {
+                telemetry.removeItem(row.item);
+            }
+        }
+        for (Row row : removedRows) {
+            if (row.item != null) {
+                telemetry.removeItem(row.item);
+            }
+        }
+        rows.clear();
+        dirtyRows.clear();
+        removedRows.clear();
+    }
+
+    /**
+     * Checks whether the keyed status table is used instead of sending every line.
+     *
+     * @return True if the status table is enabled
+     */
+    public boolean isStatusTable() {
+        return statusTable;
+    }
+
+    /**
+     * Sets a row of the status table. Nothing is sent if the value did not change; otherwise the row is sent with the next flush, which happens now if the rate limit allows.
+     *
+     * @param key Row key, shown as the caption
+     * @param value Row value
+     */
+    public synchronized void setStatus(String key, String value) {
+        Row row = rows.get(key);
+        if (row == null) {
+            row = new Row(key);
+            rows.put(key, row);
+        } else if (value.equals(row.value)) {
+            flushIfDue();
+            return;
+        }
+        row.value = value;
+        if (!row.dirty) {
+            row.dirty = true;
+            dirtyRows.add(row);
+        }
+        flushIfDue();
+    }
+
+    /**
+     * Removes a row of the status table with the next flush.
+     *
+     * @param key Row key
+     */
+    public synchronized void removeStatus(String key) {
+        Row row = rows.remove(key);
+        if (row == null) return;
+        if (row.dirty) {
+            dirtyRows.remove(row);
+        }
+        removedRows.add(row);
+        flushIfDue();
+    }
+
+    /**
+     * Sends the changed rows now, ignoring the rate limit.
+     *
+     * @return True if anything was sent
+     */
+    public synchronized boolean flush() {
+        if (dirtyRows.isEmpty() && removedRows.isEmpty()) return false;
+        lastFlushNanos = Clock.nanoTime();
+        flushCount++;
+        for (int i = 0; i < removedRows.size(); i++) {
+            Row row = removedRows.get(i);
+            if (row.item != null) {
+                telemetry.removeItem(row.item);
+            }
+        }
+        removedRows.clear();
+        for (int i = 0; i < dirtyRows.size(); i++) {
+            Row row = dirtyRows.get(i);
+            if (row.item == null) {
+                row.item = telemetry.addData(row.key, row.value);
+                row.item.setRetained(true);
+            } else {
+                row.item.setValue(row.value);
+            }
+            row.dirty = false;
+        }
+        dirtyRows.clear();
+        if (dashboard != null) {
             TelemetryPacket packet = new TelemetryPacket();
-            packet.addLine("OBJECT : "+object.toString());
+            for (Row row : rows.values()) {
+                packet.put(row.key, row.value);
+            }
             dashboard.sendTelemetryPacket(packet);
         }
+        return true;
+    }
+
+    /**
+     * Sends the changed rows if the rate limit allows. Rows held back by the limit are only sent by a later call, so this is called after every monitoring tick by {@link com.ikknight.octofault.Octofault#update()} and the {@link com.ikknight.octofault.core.BackgroundMonitor}; call it from the loop when logging through this stream directly.
+     */
+    public synchronized void flushIfDue() {
+        if (Clock.nanoTime() - lastFlushNanos >= flushIntervalNanos || flushCount == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Gets the number of status table flushes that sent something.
+     *
+     * @return Flush count
+     */
+    public synchronized long getFlushCount() {
+        return flushCount;
     }
 
+    /**
+     * Gets the number of rows in the status table.
+     *
+     * @return Row count
+     */
+    public synchronized int getStatusRowCount() {
+        return rows.size();
+    }
+
+    /**
+     * Shows a raised fault in the monitor's row.
+     *
+     * @param monitor The monitor that raised the fault
+     * @param fault The newly raised fault
+     */
     @Override
-    public void log(LogLevel level, Object object) {
-        telemetry.addLine(level.toString()+": OBJECT GIVEN : "+object.toString());
-        if (dashboard != null){
-            TelemetryPacket packet = new TelemetryPacket();
-            packet.addLine(level.toString()+": OBJECT GIVEN : "+object.toString());
-            dashboard.sendTelemetryPacket(packet);
+    public void onFaultRaised(DeviceMonitor<?> monitor, FaultRecord fault) {
+        if (statusTable) {
+            setStatus(monitor.getName(), fault.getSeverity() + " " + fault.getCode());
+        }
+    }
+
+    /**
+     * Shows the monitor's row as OK again.
+     *
+     * @param monitor The monitor that recovered
+     * @param faultyForNanos How long the monitor was faulty
+     */
+    @Override
+    public void onFaultCleared(DeviceMonitor<?> monitor, long faultyForNanos) {
+        if (statusTable) {
+            setStatus(monitor.getName(), "OK");
+        }
+    }
+
+    private static final class Row {
+        final String key;
+        String value;
+        Telemetry.Item item;
+        boolean dirty = false;
+
+        Row(String key) {
+            this.key = key;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,29 +1,73 @@
 package com.ikknight.octofault.utils.monitors;
 
-import android.annotation.SuppressLint;
-
 import com.qualcomm.hardware.rev.RevColorSensorV3;
 import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.robotcore.hardware.DistanceSensor;
 import com.qualcomm.robotcore.hardware.I2cAddr;
 import com.qualcomm.robotcore.hardware.I2cDeviceSynch;
 import com.qualcomm.robotcore.hardware.I2cDeviceSynchDevice;
+import com.qualcomm.robotcore.hardware.NormalizedColorSensor;
+import com.qualcomm.robotcore.hardware.NormalizedRGBA;
 import com.ikknight.octofault.utils.LoggingStream;
 
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+
 /**
- * Monitors ColorSensor devices for faults and anomalies. Supported devices: - [ColorSensor] - [RevColorSensorV3] Detects the following issues: - Negative or NaN color values - I2C communication failures - White balance inconsistencies (RevColorSensorV3 only)
+ * Monitors ColorSensor devices for faults and anomalies. Supported devices: - [ColorSensor] - [RevColorSensorV3] Detects the following issues: - Negative or NaN color values - I2C communication failures - White balance inconsistencies (RevColorSensorV3 only) - Invalid distance readings (sensors that are also a {@link DistanceSensor}, like the RevColorSensorV3)
+ * Color sensors are the slowest devices on the I2C bus, so the channels are read once per update and every check reuses them. Sensors that are also a {@link NormalizedColorSensor}, like the RevColorSensorV3, are read with a single {@link NormalizedColorSensor#getNormalizedColors()} transaction instead of one per channel, and their channels hold normalized values. Color monitors are polled every {@link #DEFAULT_POLL_INTERVAL_MS} by default rather than every tick.
  *
  * @see DeviceMonitor
  */
 public class ColorSensorMonitor extends DeviceMonitor<ColorSensor> {
 
+    /** Sample channel holding the red value. */
+    public static final int CHANNEL_RED = 0;
+    /** Sample channel holding the green value. */
+    public static final int CHANNEL_GREEN = 1;
+    /** Sample channel holding the blue value. */
+    public static final int CHANNEL_BLUE = 2;
+    /** Sample channel holding the alpha (total light) value. */
+    public static final int CHANNEL_ALPHA = 3;
+
+    /** Sample channel holding the distance in centimeters, for sensors that are also a {@link DistanceSensor}. */
+    public static final int CHANNEL_DISTANCE = 4;
+
+    /** Default poll interval of color monitors in milliseconds. */
+    public static final long DEFAULT_POLL_INTERVAL_MS = 100;
+
+    /** Value cache group of the color read: red, green, blue and alpha, normalized for a {@link NormalizedColorSensor}. */
+    public static final String READ_COLORS = "colors";
+
+    private static final String[] CHANNEL_NAMES = {"red", "green", "blue", "alpha", "distance"};
+
+    private I2cDeviceSynch client;
+    private final int colorsRead;
+    private final int distanceRead;
+
     /**
-     * Creates a new ColorSensorMonitor.
+     * Creates a new ColorSensorMonitor polled every {@link #DEFAULT_POLL_INTERVAL_MS}.
      *
      * @param name The hardware map name of the color sensor
      * @param device The color sensor device instance
      */
     public ColorSensorMonitor(String name, ColorSensor device) {
-        super(name, device);
+        this(name, device, DEFAULT_POLL_INTERVAL_MS);
+    }
+
+    /**
+     * Creates a new ColorSensorMonitor.
+     *
+     * @param name The hardware map name of the color sensor
+     * @param device The color sensor device instance
+     * @param pollIntervalMs Minimum time between updates in milliseconds, 0 to update every tick
+     */
+    public ColorSensorMonitor(String name, ColorSensor device, long pollIntervalMs) {
+        super(name, device, CHANNEL_NAMES);
+        setPollIntervalMs(pollIntervalMs);
+        colorsRead = registerRead(READ_COLORS, 4, this::readColors);
+        distanceRead = device instanceof DistanceSensor
+                ? registerRead("distance", 1, values -> values[0] = ((DistanceSensor) this.device).getDistance(DistanceUnit.CM))
+                : -1;
     }
 
     @Override
@@ -31,54 +75,68 @@ public class ColorSensorMonitor extends DeviceMonitor<ColorSensor> {
         boolean errorsInThisUpdate = false;
 
         try {
-            int red = device.red();
-            int green = device.green();
-            int blue = device.blue();
-            int alpha = device.alpha();
+            double red = read(colorsRead, 0);
+            double green = read(colorsRead, 1);
+            double blue = read(colorsRead, 2);
+            double alpha = read(colorsRead, 3);
+            recordSample(CHANNEL_RED, red);
+            recordSample(CHANNEL_GREEN, green);
+            recordSample(CHANNEL_BLUE, blue);
+            recordSample(CHANNEL_ALPHA, alpha);
 
             if (red < 0 || green < 0 || blue < 0 || alpha < 0) {
-                reportFault(LoggingStream.LogLevel.WARNING, name + ": One or more color values are negative.");
+                reportFault(FaultCode.COLOR_NEGATIVE, LoggingStream.LogLevel.WARNING);
                 errorsInThisUpdate = true;
             }
 
             if (Double.isNaN(red) || Double.isNaN(green) || Double.isNaN(blue) || Double.isNaN(alpha)) {
-                reportFault(LoggingStream.LogLevel.WARNING, name + ": Color value is NaN.");
+                reportFault(FaultCode.COLOR_NAN, LoggingStream.LogLevel.WARNING);
                 errorsInThisUpdate = true;
             }
 
+            if (distanceRead >= 0) {
+                double distance = read(distanceRead);
+                recordSample(CHANNEL_DISTANCE, distance);
+                if (Double.isNaN(distance) || distance < 0.0 || distance > 1000.0) {
+                    reportFault(FaultCode.DISTANCE_INVALID, LoggingStream.LogLevel.WARNING, distance);
+                    errorsInThisUpdate = true;
+                }
+            }
+
             if (device instanceof RevColorSensorV3) {
-                RevColorSensorV3 revSensor = (RevColorSensorV3) device;
-                I2cDeviceSynch client = (I2cDeviceSynch) ((I2cDeviceSynchDevice<?>) revSensor).getDeviceClient();
+                if (client == null) {
+                    client = (I2cDeviceSynch) ((I2cDeviceSynchDevice<?>) device).getDeviceClient();
+                }
 
                 if (!client.isArmed()) {
-                    reportFault(LoggingStream.LogLevel.ERROR, name + ": I2C client not armed (communication lost?)");
+                    reportFault(FaultCode.I2C_NOT_ARMED, LoggingStream.LogLevel.ERROR);
                     errorsInThisUpdate = true;
                 }
 
                 I2cAddr addr = client.getI2cAddress();
                 if (addr == null || addr.get8Bit() == 0) {
-                    reportFault(LoggingStream.LogLevel.ERROR, name + ": Invalid or missing I2C address.");
+                    reportFault(FaultCode.I2C_ADDRESS_INVALID, LoggingStream.LogLevel.ERROR);
                     errorsInThisUpdate = true;
                 }
 
-                int total = red + green + blue;
+                double total = red + green + blue;
                 if (total > 0) {
-                    double rNorm = red / (double) total;
-                    double gNorm = green / (double) total;
-                    double bNorm = blue / (double) total;
+                    double rNorm = red / total;
+                    double gNorm = green / total;
+                    double bNorm = blue / total;
 
                     double threshold = 0.2;
                     if (Math.abs(rNorm - gNorm) > threshold ||
                             Math.abs(rNorm - bNorm) > threshold ||
                             Math.abs(gNorm - bNorm) > threshold) {
-                        reportFault(LoggingStream.LogLevel.INFO, name + ": White balance significantly uneven (possible color cast or lighting issue)");
+                        reportFault(FaultCode.WHITE_BALANCE_UNEVEN, LoggingStream.LogLevel.INFO);
                         errorsInThisUpdate = true;
                     }
                 }
             }
 
         } catch (Exception e) {
-            reportFault(LoggingStream.LogLevel.ERROR, name + ": Exception during color read: " + e.getMessage());
+            reportFault(FaultCode.COLOR_READ_FAILED, LoggingStream.LogLevel.ERROR, e.getMessage());
             errorsInThisUpdate = true;
         }
 
@@ -87,14 +145,18 @@ public class ColorSensorMonitor extends DeviceMonitor<ColorSensor> {
         }
     }
 
-    @SuppressLint("DefaultLocale")
-    @Override
-    public Object getCurrentValue() {
-        try {
-            return String.format("R: %d, G: %d, B: %d, A: %d",
-                    device.red(), device.green(), device.blue(), device.alpha());
-        } catch (Exception e) {
-            return "Sensor read failed: " + e.getMessage();
+    private void readColors(double[] values) {
+        if (device instanceof NormalizedColorSensor) {
+            NormalizedRGBA colors = ((NormalizedColorSensor) device).getNormalizedColors();
+            values[0] = colors.red;
+            values[1] = colors.green;
+            values[2] = colors.blue;
+            values[3] = colors.alpha;
+        } else {
+            values[0] = device.red();
+            values[1] = device.green();
+            values[2] = device.blue();
+            values[3] = device.alpha();
         }
     }
 
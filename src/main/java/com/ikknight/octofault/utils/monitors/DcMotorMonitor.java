@@ -1,65 +1,132 @@
 package com.ikknight.octofault.utils.monitors;
 
-import android.annotation.SuppressLint;
-
+import com.ikknight.octofault.utils.Clock;
 import com.ikknight.octofault.utils.LoggingStream;
 import com.qualcomm.robotcore.hardware.*;
 
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+
 /**
- * Monitors DC motors and continuous rotation servos for stalls and performance issues. Supported devices: - DcMotor - DcMotorEx - CRServo - CRServoImpl - CRServoImplEx Checks for: - Motor stalls (encoder not moving under power) - Low velocity under power - PWM status for advanced servos - NaN power values
+ * Monitors DC motors and continuous rotation servos for stalls and performance issues. Supported devices: - DcMotor - DcMotorEx - CRServo - CRServoImpl - CRServoImplEx Checks for: - Motor stalls (encoder not moving under power) - Low velocity under power - PWM status for advanced servos - NaN power values - Over-current and sustained high current (DcMotorEx). The over-current flag is part of the hub's bulk data and checked every update. The current itself is not, so it is read at its own, lower rate (see {@link #setCurrentPollIntervalMs(long)}) with one hub command per sample, and the last value is reused in between. Each value is read once per update and reused by {@link #fillSnapshot(MonitorSnapshot)}, so with bulk reads enabled encoder data comes from the hub's bulk cache.
  */
 public class DcMotorMonitor extends DeviceMonitor<DcMotorSimple> {
 
+    /** Sample channel holding the commanded power. */
+    public static final int CHANNEL_POWER = 0;
+    /** Sample channel holding the encoder position in ticks. */
+    public static final int CHANNEL_POSITION = 1;
+    /** Sample channel holding the encoder velocity in ticks per second. */
+    public static final int CHANNEL_VELOCITY = 2;
+    /** Sample channel holding the motor current in amps, updated at the current poll interval. */
+    public static final int CHANNEL_CURRENT = 3;
+
+    private static final String[] CHANNEL_NAMES = {"power", "position", "velocity", "current"};
+
     private int lastPosition = 0;
-    private long lastTime = System.currentTimeMillis();
+    private long lastMovedTime = Clock.millis();
+
+    private long currentPollIntervalMs = 100;
+    private double sustainedCurrentAmps = 4.0;
+    private long sustainedCurrentWindowMs = 1000;
+    private boolean currentSupported = true;
+    private boolean currentSampled = false;
+    private long lastCurrentSampleTime = 0;
+    private double current = Double.NaN;
+    private boolean overCurrent = false;
+    // message of the last failed current read, kept until a read succeeds so the fault lasts between polls
+    private String currentReadFailure = null;
+
+    private final int powerRead;
+    private final int positionRead;
+    private final int velocityRead;
+    private final int overCurrentRead;
+
+    private double power = 0.0;
+    private int currentPosition = 0;
+    private double velocity = 0.0;
 
     public DcMotorMonitor(String name, DcMotorSimple device) {
-        super(name, device);
+        super(name, device, CHANNEL_NAMES);
+        powerRead = registerRead("power", 1, values -> values[0] = this.device.getPower());
+        positionRead = device instanceof DcMotor ? registerRead("position", 1, values -> values[0] = ((DcMotor) this.device).getCurrentPosition()) : -1;
+        velocityRead = device instanceof DcMotorEx ? registerRead("velocity", 1, values -> values[0] = ((DcMotorEx) this.device).getVelocity()) : -1;
+        overCurrentRead = device instanceof DcMotorEx ? registerRead("overCurrent", 1, values -> values[0] = ((DcMotorEx) this.device).isOverCurrent() ? 1 : 0) : -1;
+        resizeCurrentHistory();
     }
 
     @Override
     public void update() {
         boolean errorsInThisUpdate = false;
 
-        double power;
         try {
-            power = device.getPower();
+            power = read(powerRead);
         } catch (Exception e) {
-            reportFault(LoggingStream.LogLevel.ERROR, name + ": Failed to read power: " + e.getMessage());
+            reportFault(FaultCode.POWER_READ_FAILED, LoggingStream.LogLevel.ERROR, e.getMessage());
             return;
         }
 
+        recordSample(CHANNEL_POWER, power);
+
         if (Double.isNaN(power)) {
-            reportFault(LoggingStream.LogLevel.ERROR, name + ": Power is NaN");
+            reportFault(FaultCode.POWER_NAN, LoggingStream.LogLevel.ERROR);
             return;
         }
 
-        long now = System.currentTimeMillis();
+        long now = Clock.millis();
 
         if (device instanceof DcMotorEx) {
             DcMotorEx motorEx = (DcMotorEx) device;
-            int currentPosition = motorEx.getCurrentPosition();
-            double velocity = motorEx.getVelocity();
+            currentPosition = (int) read(positionRead);
+            velocity = read(velocityRead);
+            recordSample(CHANNEL_POSITION, currentPosition);
+            recordSample(CHANNEL_VELOCITY, velocity);
 
+            if (currentPosition != lastPosition || Math.abs(power) <= 0.05) {
+                lastMovedTime = now;
+            }
             if (Math.abs(power) > 0.05) {
-                if (currentPosition == lastPosition && (now - lastTime) > 300) {
-                    reportFault(LoggingStream.LogLevel.WARNING, name + ": Encoder not moving despite power (stalled)");
+                if ((now - lastMovedTime) > 300) {
+                    reportFault(FaultCode.ENCODER_STALLED, LoggingStream.LogLevel.WARNING, currentPosition);
                     errorsInThisUpdate = true;
                 }
                 if (Math.abs(velocity) < 5) {
-                    reportFault(LoggingStream.LogLevel.WARNING, name + ": Velocity too low under power (possible stall)");
+                    reportFault(FaultCode.VELOCITY_LOW, LoggingStream.LogLevel.WARNING, velocity);
                     errorsInThisUpdate = true;
                 }
             }
 
             lastPosition = currentPosition;
-            lastTime = now;
+
+            // served by the bulk data, so checking it every tick costs no hub command
+            boolean wasOverCurrent = overCurrent;
+            overCurrent = read(overCurrentRead) != 0;
+
+            if (currentSupported && currentPollIntervalMs > 0) {
+                // also sampled when over current starts, so the fault reports the current that tripped it
+                if (!currentSampled || now - lastCurrentSampleTime >= currentPollIntervalMs || (overCurrent && !wasOverCurrent)) {
+                    errorsInThisUpdate |= !sampleCurrent(motorEx, now);
+                }
+                if (currentReadFailure != null) {
+                    reportFault(FaultCode.CURRENT_READ_FAILED, LoggingStream.LogLevel.WARNING, currentReadFailure);
+                    errorsInThisUpdate = true;
+                }
+                if (!Double.isNaN(current) && isCurrentHighSustained()) {
+                    reportFault(FaultCode.CURRENT_HIGH_SUSTAINED, LoggingStream.LogLevel.WARNING, current);
+                    errorsInThisUpdate = true;
+                }
+            }
+            if (overCurrent) {
+                reportFault(FaultCode.OVER_CURRENT, LoggingStream.LogLevel.ERROR, current);
+                errorsInThisUpdate = true;
+            }
         }
 
         else if (device instanceof DcMotor) {
             DcMotor motor = (DcMotor) device;
+            currentPosition = (int) read(positionRead);
+            recordSample(CHANNEL_POSITION, currentPosition);
             if (motor.isBusy() && Math.abs(power) < 0.15) {
-                reportFault(LoggingStream.LogLevel.WARNING, name + ": Motor is busy but power is significantly low.");
+                reportFault(FaultCode.BUSY_LOW_POWER, LoggingStream.LogLevel.WARNING, power);
                 errorsInThisUpdate = true;
             }
         }
@@ -67,7 +134,7 @@ public class DcMotorMonitor extends DeviceMonitor<DcMotorSimple> {
         else if (device instanceof CRServo) {
             CRServo servo = (CRServo) device;
             if (Math.abs(power) > 0.5) {
-                reportFault(LoggingStream.LogLevel.INFO, name + ": CRServo power high, but no encoder feedback available.");
+                reportFault(FaultCode.CRSERVO_NO_FEEDBACK, LoggingStream.LogLevel.INFO, power);
                 errorsInThisUpdate = true;
             }
 
@@ -76,11 +143,11 @@ public class DcMotorMonitor extends DeviceMonitor<DcMotorSimple> {
                 try {
                     boolean pwm = advancedServo.isPwmEnabled();
                     if (!pwm) {
-                        reportFault(LoggingStream.LogLevel.ERROR, name + ": PWM is not enabled for CRServoImplEx");
+                        reportFault(FaultCode.PWM_DISABLED, LoggingStream.LogLevel.ERROR);
                         errorsInThisUpdate = true;
                     }
                 } catch (Exception e) {
-                    reportFault(LoggingStream.LogLevel.ERROR, name + ": Error reading PWM status: " + e.getMessage());
+                    reportFault(FaultCode.PWM_READ_FAILED, LoggingStream.LogLevel.ERROR, e.getMessage());
                     errorsInThisUpdate = true;
                 }
             }
@@ -91,21 +158,92 @@ public class DcMotorMonitor extends DeviceMonitor<DcMotorSimple> {
         }
     }
 
+    // returns false if the read failed
+    private boolean sampleCurrent(DcMotorEx motorEx, long now) {
+        currentSampled = true;
+        lastCurrentSampleTime = now;
+        try {
+            current = motorEx.getCurrent(CurrentUnit.AMPS);
+        } catch (UnsupportedOperationException e) {
+            currentSupported = false;
+            current = Double.NaN;
+            currentReadFailure = null;
+            return true;
+        } catch (Exception e) {
+            // snapshots and the sustained check must not keep using the last good reading
+            current = Double.NaN;
+            recordSample(CHANNEL_CURRENT, Double.NaN);
+            currentReadFailure = String.valueOf(e.getMessage());
+            return false;
+        }
+        currentReadFailure = null;
+        recordSample(CHANNEL_CURRENT, current);
+        return true;
+    }
 
+    private boolean isCurrentHighSustained() {
+        // every sample in the window above the threshold, and the window mostly covered
+        SampleHistory currentHistory = getHistory(CHANNEL_CURRENT);
+        return currentHistory != null
+                && currentHistory.size() >= 2
+                && currentHistory.getMin() > sustainedCurrentAmps
+                && currentHistory.getSpanNanos() >= (sustainedCurrentWindowMs - currentPollIntervalMs) * 1_000_000L;
+    }
 
-    @SuppressLint("DefaultLocale")
-    @Override
-    public Object getCurrentValue() {
-        if (device instanceof DcMotorEx) {
-            DcMotorEx ex = (DcMotorEx) device;
-            return String.format("Power: %.2f, Pos: %d, Vel: %.2f",
-                    ex.getPower(), ex.getCurrentPosition(), ex.getVelocity());
-        } else if (device instanceof DcMotor) {
-            DcMotor motor = (DcMotor) device;
-            return String.format("Power: %.2f, Pos: %d", motor.getPower(), motor.getCurrentPosition());
-        } else {
-            return "Power: " + device.getPower();
-        }
+    /**
+     * Gets the motor current from the last current sample, without a hub command.
+     *
+     * @return Current in amps, NaN if not sampled yet or not a DcMotorEx
+     */
+    public double getCurrent() {
+        return current;
+    }
+
+    /**
+     * Checks whether the hub reported the motor over its current alert on the last update, without a hub command.
+     *
+     * @return True if over current
+     */
+    public boolean isOverCurrent() {
+        return overCurrent;
+    }
+
+    /**
+     * Sets how often the motor current is read. Each read is one hub command outside the bulk data, so keep this well above the loop time.
+     *
+     * @param currentPollIntervalMs Current poll interval in milliseconds, 0 to stop current monitoring
+     */
+    public void setCurrentPollIntervalMs(long currentPollIntervalMs) {
+        this.currentPollIntervalMs = Math.max(0, currentPollIntervalMs);
+        resizeCurrentHistory();
+    }
+
+    /**
+     * Gets how often the motor current is read.
+     *
+     * @return Current poll interval in milliseconds, 0 if current monitoring is off
+     */
+    public long getCurrentPollIntervalMs() {
+        return currentPollIntervalMs;
+    }
+
+    /**
+     * Sets the current that, held for the whole window, is reported as sustained high current.
+     *
+     * @param amps Current threshold in amps
+     * @param windowMs How long the current must stay above the threshold in milliseconds
+     */
+    public void setSustainedCurrentThreshold(double amps, long windowMs) {
+        this.sustainedCurrentAmps = amps;
+        this.sustainedCurrentWindowMs = Math.max(1, windowMs);
+        resizeCurrentHistory();
+    }
+
+    private void resizeCurrentHistory() {
+        if (!(device instanceof DcMotorEx)) return;
+        // room for every sample in the window; allocated on configuration only
+        long perWindow = sustainedCurrentWindowMs / Math.max(1, currentPollIntervalMs);
+        enableHistory(CHANNEL_CURRENT, (int) Math.min(1024, perWindow + 2), sustainedCurrentWindowMs);
     }
 
     @Override
@@ -1,21 +1,64 @@
 package com.ikknight.octofault.utils.monitors;
 
+import com.ikknight.octofault.utils.Clock;
+import com.ikknight.octofault.utils.DeviceValueCache;
 import com.ikknight.octofault.utils.LoggingStream;
 import com.qualcomm.robotcore.hardware.HardwareDevice;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 
 /**
- * Base class for monitoring hardware devices and detecting faults. Extend this class to create monitors for specific device types.
+ * Base class for monitoring hardware devices and detecting faults. Extend this class to create monitors for specific device types. Fault state is written by the thread calling {@link #update()} and may be read from any other thread. Faults are stored as structured {@link FaultRecord}s in a fixed set of preallocated slots, so a fault that stays active costs no allocation per tick.
  *
  * @param <T> The type of hardware device being monitored
  */
 public abstract class DeviceMonitor<T extends HardwareDevice> {
+    /**
+     * Maximum number of distinct faults a monitor tracks at once. Further distinct faults still mark the device faulty but are not recorded.
+     */
+    public static final int MAX_FAULTS = 8;
+
+    /**
+     * Maximum number of primitive sample channels a monitor can record per update.
+     */
+    public static final int MAX_SAMPLES = 8;
+
+    private static final String[] DEFAULT_CHANNEL_NAMES = new String[MAX_SAMPLES];
+
+    static {
+        for (int i = 0; i < MAX_SAMPLES; i++) {
+            DEFAULT_CHANNEL_NAMES[i] = "channel" + i;
+        }
+    }
+
     protected final String name;
     protected final T device;
-    protected boolean isFaulty = false;
-    protected final List<String> faultReasons = new ArrayList<>();
+    protected volatile boolean isFaulty = false;
+    /**
+     * Read-only view of the current faults, rendered on access.
+     *
+     * @deprecated Report faults through {@link #reportFault(FaultCode, LoggingStream.LogLevel)} and read them through {@link #getFaultRecord(int)}; this list can no longer be modified.
+     */
+    @Deprecated
+    protected final List<String> faultReasons = new FaultReasonView();
+    protected long pollIntervalMs = 0;
+
+    private final FaultRecord[] faultSlots = new FaultRecord[MAX_FAULTS];
+    private int faultCount = 0;
+    private volatile int faultVersion = 0;
+
+    private final String[] channelNames = new String[MAX_SAMPLES];
+    private final double[] samples = new double[MAX_SAMPLES];
+    private int sampleCount = 0;
+    private final SampleHistory[] histories = new SampleHistory[MAX_SAMPLES];
+
+    private DeviceValueCache valueCache;
+    private final String[] readKeys = new String[MAX_SAMPLES];
+    private final DeviceValueCache.Reader[] readers = new DeviceValueCache.Reader[MAX_SAMPLES];
+    private final int[] readSizes = new int[MAX_SAMPLES];
+    private final DeviceValueCache.Entry[] reads = new DeviceValueCache.Entry[MAX_SAMPLES];
+    private int readCount = 0;
 
     /**
      * Creates a device monitor.
@@ -24,8 +67,28 @@ public abstract class DeviceMonitor<T extends HardwareDevice> {
      * @param device Hardware device instance
      */
     public DeviceMonitor(String name, T device) {
+        this(name, device, new String[0]);
+    }
+
+    /**
+     * Creates a device monitor naming the sample channels it records.
+     *
+     * @param name Device name from hardware map
+     * @param device Hardware device instance
+     * @param channelNames Names of the first channels, used by {@link MonitorSnapshot}; the others are named {@code "channel<n>"}
+     */
+    protected DeviceMonitor(String name, T device, String[] channelNames) {
+        if (channelNames.length > MAX_SAMPLES) {
+            throw new IllegalArgumentException("At most " + MAX_SAMPLES + " channel names, got " + channelNames.length);
+        }
         this.name = name;
         this.device = device;
+        for (int i = 0; i < MAX_FAULTS; i++) {
+            faultSlots[i] = new FaultRecord(name);
+        }
+        for (int i = 0; i < MAX_SAMPLES; i++) {
+            this.channelNames[i] = i < channelNames.length ? channelNames[i] : DEFAULT_CHANNEL_NAMES[i];
+        }
     }
 
     /**
@@ -51,6 +114,24 @@ public abstract class DeviceMonitor<T extends HardwareDevice> {
         return device;
     }
 
+    /**
+     * Gets how often this monitor wants to be updated. Slow devices (I2C sensors, IMUs) can use a longer interval to save loop time.
+     *
+     * @return Minimum time between updates in milliseconds, 0 to update on every tick
+     */
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    /**
+     * Sets how often this monitor wants to be updated.
+     *
+     * @param pollIntervalMs Minimum time between updates in milliseconds, 0 to update on every tick
+     */
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = Math.max(0, pollIntervalMs);
+    }
+
     /**
      * Checks if the device is operating normally.
      *
@@ -61,7 +142,7 @@ public abstract class DeviceMonitor<T extends HardwareDevice> {
     }
 
     /**
-     * Gets all current fault reasons.
+     * Gets all current fault reasons. The list is a live view and each element is rendered from its {@link FaultRecord} when accessed, so prefer {@link #getFaultRecord(int)} on hot paths. Each element is read consistently, but the list can change between reads while the monitor updates on another thread; iterate it on the updating thread or use {@link #copyFaultRecords()} there.
      *
      * @return List of fault descriptions
      */
@@ -69,14 +150,95 @@ public abstract class DeviceMonitor<T extends HardwareDevice> {
         return faultReasons;
     }
 
+    /**
+     * Gets the number of distinct faults currently recorded.
+     *
+     * @return Fault count
+     */
+    public int getFaultCount() {
+        synchronized (faultSlots) {
+            return faultCount;
+        }
+    }
+
+    /**
+     * Gets a recorded fault without copying it. The returned record is the monitor's own slot, overwritten in place when the monitor next updates, so it is only valid until then: inside a {@link com.ikknight.octofault.core.FaultListener} callback, or on the thread updating the monitor. Use {@link FaultRecord#copy()} or {@link #copyFaultRecords()} to keep it or hand it to another thread.
+     *
+     * @param index Position in [0, {@link #getFaultCount()})
+     * @return The shared fault record, valid until the next update
+     */
+    public FaultRecord getFaultRecord(int index) {
+        synchronized (faultSlots) {
+            if (index < 0 || index >= faultCount) {
+                throw new IndexOutOfBoundsException("Fault index " + index + ", count " + faultCount);
+            }
+            return faultSlots[index];
+        }
+    }
+
+    /**
+     * Gets a counter that changes whenever a new fault is raised or the faults are cleared. Repeated reports of an already active fault do not change it, which lets callers detect fault transitions without comparing records.
+     *
+     * @return Fault state version
+     */
+    public int getFaultVersion() {
+        return faultVersion;
+    }
+
+    /**
+     * Copies the current faults so they can be kept or read from another thread.
+     *
+     * @return Independent copies of the recorded faults
+     */
+    public FaultRecord[] copyFaultRecords() {
+        synchronized (faultSlots) {
+            FaultRecord[] copies = new FaultRecord[faultCount];
+            for (int i = 0; i < faultCount; i++) {
+                copies[i] = faultSlots[i].copy();
+            }
+            return copies;
+        }
+    }
+
+    /**
+     * Reports a fault condition. Repeated reports of the same code update the existing record in place.
+     *
+     * @param code Kind of fault
+     * @param severity Fault severity level
+     */
+    protected void reportFault(FaultCode code, LoggingStream.LogLevel severity) {
+        record(code, severity, Double.NaN, false, null);
+    }
+
+    /**
+     * Reports a fault condition together with the measured value that triggered it.
+     *
+     * @param code Kind of fault
+     * @param severity Fault severity level
+     * @param value The offending measurement
+     */
+    protected void reportFault(FaultCode code, LoggingStream.LogLevel severity, double value) {
+        record(code, severity, value, true, null);
+    }
+
+    /**
+     * Reports a fault condition with extra detail, such as an exception message. The detail string is stored as-is, never concatenated.
+     *
+     * @param code Kind of fault
+     * @param severity Fault severity level
+     * @param detail Extra detail, may be null
+     */
+    protected void reportFault(FaultCode code, LoggingStream.LogLevel severity, String detail) {
+        record(code, severity, Double.NaN, false, detail);
+    }
+
     /**
      * Reports a fault condition.
      *
      * @param reason Description of the fault
      */
     protected void reportFault(String reason) {
-        isFaulty = true;
-        faultReasons.add(reason);
+        record(FaultCode.CUSTOM, LoggingStream.LogLevel.WARNING, Double.NaN, false, reason);
     }
 
     /**
@@ -86,24 +248,238 @@ public abstract class DeviceMonitor<T extends HardwareDevice> {
      * @param reason Description of the fault
      */
     protected void reportFault(LoggingStream.LogLevel severity, String reason){
-        isFaulty = true;
-        faultReasons.add(severity.toString() + ": " + reason);
+        record(FaultCode.CUSTOM, severity, Double.NaN, false, reason);
     }
 
     /**
      * Clears all fault conditions.
      */
     protected void clearFaults() {
-        isFaulty = false;
-        faultReasons.clear();
+        synchronized (faultSlots) {
+            if (isFaulty || faultCount > 0) {
+                faultVersion++;
+            }
+            faultCount = 0;
+            isFaulty = false;
+        }
+    }
+
+    private void record(FaultCode code, LoggingStream.LogLevel severity, double value, boolean hasValue, String detail) {
+        long now = Clock.nanoTime();
+        synchronized (faultSlots) {
+            if (!isFaulty) {
+                faultVersion++;
+            }
+            isFaulty = true;
+            for (int i = 0; i < faultCount; i++) {
+                if (faultSlots[i].matches(code, detail)) {
+                    // a severity change must reach the fault manager's health index
+                    if (faultSlots[i].repeat(severity, now, value, hasValue, detail)) {
+                        faultVersion++;
+                    }
+                    return;
+                }
+            }
+            if (faultCount < MAX_FAULTS) {
+                faultVersion++;
+                faultSlots[faultCount++].raise(code, severity, now, value, hasValue, detail, faultVersion);
+            }
+        }
+    }
+
+    private final class FaultReasonView extends AbstractList<String> {
+        @Override
+        public String get(int index) {
+            // rendered under the lock so an update on another thread cannot rewrite the record halfway
+            synchronized (faultSlots) {
+                return getFaultRecord(index).toString();
+            }
+        }
+
+        @Override
+        public int size() {
+            return getFaultCount();
+        }
+    }
+
+    /**
+     * Gets the number of sample channels recorded by the last update.
+     *
+     * @return Sample channel count
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Gets a value read from the device during the last update, without touching the hardware.
+     *
+     * @param channel Channel in [0, {@link #getSampleCount()})
+     * @return The sampled value, NaN if the channel was not read
+     */
+    public double getSample(int channel) {
+        return samples[channel];
+    }
+
+    /**
+     * Records a primitive value read from the device during this update, so recorders and dashboards can use it without another hardware read. Channels keep their value until overwritten.
+     *
+     * @param channel Channel in [0, {@link #MAX_SAMPLES})
+     * @param value The value read
+     */
+    protected void recordSample(int channel, double value) {
+        samples[channel] = value;
+        SampleHistory history = histories[channel];
+        if (history != null) {
+            history.add(Clock.nanoTime(), value);
+        }
+        if (channel >= sampleCount) {
+            for (int i = sampleCount; i < channel; i++) {
+                samples[i] = Double.NaN;
+            }
+            sampleCount = channel + 1;
+        }
+    }
+
+    /**
+     * Declares a hardware read that goes through the value cache, so monitors and user code share one read per tick. Call from the constructor; until the monitor is registered with a cache every {@link #read(int, int)} reads the device.
+     *
+     * @param key Name of the value or group of values, shared with other readers of the device
+     * @param size Number of values the reader fills
+     * @param reader Reads the device; create it once, not per update
+     * @return Handle for {@link #read(int, int)}
+     * @throws IllegalArgumentException If the monitor already declared {@link #MAX_SAMPLES} reads
+     */
+    protected final int registerRead(String key, int size, DeviceValueCache.Reader reader) {
+        if (readCount >= MAX_SAMPLES) {
+            throw new IllegalArgumentException("At most " + MAX_SAMPLES + " reads per monitor, cannot register " + key);
+        }
+        int handle = readCount++;
+        readKeys[handle] = key;
+        readSizes[handle] = size;
+        readers[handle] = reader;
+        reads[handle] = valueCache != null ? valueCache.entry(device, key, size, reader) : DeviceValueCache.uncached(size, reader);
+        return handle;
+    }
+
+    /**
+     * Gets a value of a declared read, from the cache if the device was already read this tick.
+     *
+     * @param handle Handle returned by {@link #registerRead}
+     * @param index Value in the read
+     * @return The value
+     */
+    protected final double read(int handle, int index) {
+        return reads[handle].get(index);
+    }
+
+    /**
+     * Gets the first value of a declared read, from the cache if the device was already read this tick.
+     *
+     * @param handle Handle returned by {@link #registerRead}
+     * @return The value
+     */
+    protected final double read(int handle) {
+        return reads[handle].get(0);
+    }
+
+    /**
+     * Routes this monitor's hardware reads through a value cache. Called by the FaultManager on registration.
+     *
+     * @param valueCache The cache, or null to read the device on every update
+     */
+    public void setValueCache(DeviceValueCache valueCache) {
+        this.valueCache = valueCache;
+        for (int i = 0; i < readCount; i++) {
+            reads[i] = valueCache != null ? valueCache.entry(device, readKeys[i], readSizes[i], readers[i]) : DeviceValueCache.uncached(readSizes[i], readers[i]);
+        }
+    }
+
+    /**
+     * Gets the value cache this monitor reads through.
+     *
+     * @return The cache, or null if not registered with one
+     */
+    public DeviceValueCache getValueCache() {
+        return valueCache;
+    }
+
+    /**
+     * Starts keeping a history of a sample channel, so fault checks and callers can look at trends and sustained conditions instead of single readings. Call before monitoring starts; the buffers are allocated here and never again.
+     *
+     * @param channel Channel in [0, {@link #MAX_SAMPLES})
+     * @param capacity Maximum number of samples kept
+     * @param windowMs Age limit of kept samples in milliseconds, 0 for no limit
+     * @return The new history
+     */
+    public SampleHistory enableHistory(int channel, int capacity, long windowMs) {
+        SampleHistory history = new SampleHistory(capacity, windowMs);
+        histories[channel] = history;
+        return history;
+    }
+
+    /**
+     * Stops keeping the history of a sample channel.
+     *
+     * @param channel Channel in [0, {@link #MAX_SAMPLES})
+     */
+    public void disableHistory(int channel) {
+        histories[channel] = null;
+    }
+
+    /**
+     * Gets the history of a sample channel.
+     *
+     * @param channel Channel in [0, {@link #MAX_SAMPLES})
+     * @return The channel's history, or null if not enabled
+     */
+    public SampleHistory getHistory(int channel) {
+        return histories[channel];
+    }
+
+    /**
+     * Gets the name of a sample channel, used by {@link MonitorSnapshot}. Monitors name their channels through {@link #DeviceMonitor(String, HardwareDevice, String[])}.
+     *
+     * @param channel Channel in [0, {@link #MAX_SAMPLES})
+     * @return Channel name, {@code "channel<n>"} unless named by the monitor
+     */
+    public String getChannelName(int channel) {
+        return channelNames[channel];
+    }
+
+    /**
+     * Fills a snapshot with the health and the values read during the last update. No hardware is read and nothing is allocated. Values written by an update running concurrently on another thread may come from either update.
+     *
+     * @param snapshot Snapshot to overwrite
+     * @return The same snapshot
+     */
+    public MonitorSnapshot fillSnapshot(MonitorSnapshot snapshot) {
+        snapshot.reset(name, getDeviceType(), isHealthy(), getFaultCount());
+        for (int i = 0; i < sampleCount; i++) {
+            snapshot.put(getChannelName(i), samples[i]);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Takes a snapshot in a new object. Prefer {@link #fillSnapshot(MonitorSnapshot)} with a reused snapshot on hot paths.
+     *
+     * @return A new snapshot
+     */
+    public MonitorSnapshot snapshot() {
+        return fillSnapshot(new MonitorSnapshot());
     }
 
     /**
      * Gets current device state for debugging.
      *
-     * @return Formatted string with device status
+     * @return Formatted string with the values read during the last update
+     * @deprecated Use {@link #fillSnapshot(MonitorSnapshot)} and format the channels as needed; this builds a new string on every call.
      */
-    public abstract Object getCurrentValue();
+    @Deprecated
+    public Object getCurrentValue() {
+        return snapshot().toString();
+    }
 
     /**
      * Gets the device type name. Return from most specific to least specific (e.g., "DcMotorEx" rather than "DcMotor").
@@ -11,6 +11,13 @@ import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
  */
 public class DistanceSensorMonitor extends DeviceMonitor<DistanceSensor>{
 
+    /** Sample channel holding the distance in centimeters. */
+    public static final int CHANNEL_DISTANCE = 0;
+
+    private static final String[] CHANNEL_NAMES = {"distance"};
+
+    private final int distanceRead;
+
     /**
      * Creates a distance sensor monitor.
      *
@@ -18,28 +25,25 @@ public class DistanceSensorMonitor extends DeviceMonitor<DistanceSensor>{
      * @param device Distance sensor instance
      */
     public DistanceSensorMonitor(String name, DistanceSensor device) {
-        super(name, device);
+        super(name, device, CHANNEL_NAMES);
+        distanceRead = registerRead("distance", 1, values -> values[0] = this.device.getDistance(DistanceUnit.CM));
     }
 
     @Override
     public void update() {
         try {
-            double distance = device.getDistance(DistanceUnit.CM);
+            double distance = read(distanceRead);
+            recordSample(CHANNEL_DISTANCE, distance);
             if (Double.isNaN(distance) || distance < 0.0 || distance > 1000.0) {
-                reportFault(LoggingStream.LogLevel.WARNING, name + ": Invalid distance reading: " + distance);
+                reportFault(FaultCode.DISTANCE_INVALID, LoggingStream.LogLevel.WARNING, distance);
             } else {
                 clearFaults();
             }
         } catch (Exception e) {
-            reportFault(LoggingStream.LogLevel.ERROR, name + ": Failed to read distance: " + e.getMessage());
+            reportFault(FaultCode.DISTANCE_READ_FAILED, LoggingStream.LogLevel.ERROR, e.getMessage());
         }
     }
 
-    @Override
-    public Object getCurrentValue() {
-        return "Distance(CM) : "+device.getDistance(DistanceUnit.CM);
-    }
-
     @Override
     public String getDeviceType() {
         if (device instanceof Rev2mDistanceSensor) {
@@ -0,0 +1,66 @@
+package com.ikknight.octofault.utils.monitors;
+
+/**
+ * Identifies the kind of fault a monitor detected. Each code carries a fixed description so that reporting a fault never builds a string; text is only produced when a {@link FaultRecord} is rendered.
+ *
+ * @see FaultRecord
+ */
+public enum FaultCode {
+    /** Free-form fault reported through the legacy string API. */
+    CUSTOM(""),
+
+    POWER_READ_FAILED("Failed to read power"),
+    POWER_NAN("Power is NaN"),
+    ENCODER_STALLED("Encoder not moving despite power (stalled)"),
+    VELOCITY_LOW("Velocity too low under power (possible stall)"),
+    BUSY_LOW_POWER("Motor is busy but power is significantly low."),
+    CRSERVO_NO_FEEDBACK("CRServo power high, but no encoder feedback available."),
+    CURRENT_READ_FAILED("Failed to read motor current"),
+    OVER_CURRENT("Motor current above the hub's current alert"),
+    CURRENT_HIGH_SUSTAINED("Motor current high for too long (possible stall or binding)"),
+
+    SERVO_POSITION_INVALID("Position out of range (0.0–1.0), Or Servo position is unknown. (either undefined or the servo position is not set.)"),
+    PWM_DISABLED("PWM is not enabled"),
+    PWM_READ_FAILED("Error reading PWM status"),
+
+    IMU_READ_FAILED("Exception during IMU read"),
+    ANGULAR_VELOCITY_UNAVAILABLE("Angular velocity data unavailable"),
+    ORIENTATION_UNAVAILABLE("YawPitchRollAngles data unavailable"),
+    ORIENTATION_NAN("Yaw, Pitch, or Roll is NaN"),
+
+    DISTANCE_READ_FAILED("Failed to read distance"),
+    DISTANCE_INVALID("Invalid distance reading"),
+
+    COLOR_READ_FAILED("Exception during color read"),
+    COLOR_NEGATIVE("One or more color values are negative."),
+    COLOR_NAN("Color value is NaN."),
+    I2C_NOT_ARMED("I2C client not armed (communication lost?)"),
+    I2C_ADDRESS_INVALID("Invalid or missing I2C address."),
+    WHITE_BALANCE_UNEVEN("White balance significantly uneven (possible color cast or lighting issue)"),
+
+    TOUCH_READ_FAILED("Exception during touch sensor read"),
+    TOUCH_NAN("Touch sensor reading is NaN."),
+    TOUCH_OUT_OF_RANGE("Touch sensor value out of expected range [0.0–1.0]."),
+
+    VOLTAGE_READ_FAILED("Failed to read voltage"),
+    VOLTAGE_INVALID("Voltage reading is NaN or not positive"),
+    VOLTAGE_SAG("Sustained voltage sag (battery low or overloaded)"),
+    VOLTAGE_DIP("Sharp voltage dip"),
+    VOLTAGE_DIP_UNLOADED("Sharp voltage dip without motor load (check battery connection)"),
+    VOLTAGE_CRITICAL("Voltage critically low (brownout imminent)");
+
+    private final String description;
+
+    FaultCode(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Gets the human-readable description of this fault.
+     *
+     * @return Fault description, empty for {@link #CUSTOM}
+     */
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,204 @@
+package com.ikknight.octofault.utils.monitors;
+
+import com.ikknight.octofault.utils.LoggingStream;
+
+/**
+ * A single structured fault: what went wrong ({@link FaultCode}), how bad it is, when it was last seen and the primitive value that triggered it. Monitors keep a fixed set of preallocated records and overwrite them in place, so an active fault costs no allocation per tick. Text is only built by {@link #toString()} or {@link #render(StringBuilder)}.
+ *
+ * @see DeviceMonitor#getFaultRecord(int)
+ * @see DeviceMonitor#copyFaultRecords()
+ */
+public final class FaultRecord {
+    private final String monitorName;
+    private FaultCode code = FaultCode.CUSTOM;
+    private LoggingStream.LogLevel severity = LoggingStream.LogLevel.INFO;
+    private long timestampNanos;
+    private long firstSeenNanos;
+    private double value = Double.NaN;
+    private boolean hasValue;
+    private String detail;
+    private int occurrences;
+    private int raiseVersion;
+
+    /**
+     * Creates an empty record owned by a monitor.
+     *
+     * @param monitorName Name of the monitor reporting into this record
+     */
+    public FaultRecord(String monitorName) {
+        this.monitorName = monitorName;
+    }
+
+    void raise(FaultCode code, LoggingStream.LogLevel severity, long now, double value, boolean hasValue, String detail, int raiseVersion) {
+        this.raiseVersion = raiseVersion;
+        this.code = code;
+        this.severity = severity;
+        this.timestampNanos = now;
+        this.firstSeenNanos = now;
+        this.value = value;
+        this.hasValue = hasValue;
+        this.detail = detail;
+        this.occurrences = 1;
+    }
+
+    // returns true if the severity changed
+    boolean repeat(LoggingStream.LogLevel severity, long now, double value, boolean hasValue, String detail) {
+        boolean changed = this.severity != severity;
+        this.severity = severity;
+        this.timestampNanos = now;
+        this.value = value;
+        this.hasValue = hasValue;
+        this.detail = detail;
+        this.occurrences++;
+        return changed;
+    }
+
+    boolean matches(FaultCode code, String detail) {
+        // legacy string faults are only distinct by their text
+        return this.code == code && (code != FaultCode.CUSTOM || this.detail == detail || (this.detail != null && this.detail.equals(detail)));
+    }
+
+    /**
+     * Creates an independent copy of this record, for handing to other threads.
+     *
+     * @return A new record with the same contents
+     */
+    public FaultRecord copy() {
+        FaultRecord copy = new FaultRecord(monitorName);
+        copy.code = code;
+        copy.severity = severity;
+        copy.timestampNanos = timestampNanos;
+        copy.firstSeenNanos = firstSeenNanos;
+        copy.value = value;
+        copy.hasValue = hasValue;
+        copy.detail = detail;
+        copy.occurrences = occurrences;
+        copy.raiseVersion = raiseVersion;
+        return copy;
+    }
+
+    /**
+     * Gets the name of the monitor that reported the fault.
+     *
+     * @return Device name from hardware map
+     */
+    public String getMonitorName() {
+        return monitorName;
+    }
+
+    /**
+     * Gets the kind of fault.
+     *
+     * @return The fault code
+     */
+    public FaultCode getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the fault severity.
+     *
+     * @return Severity level
+     */
+    public LoggingStream.LogLevel getSeverity() {
+        return severity;
+    }
+
+    /**
+     * Gets when the fault was last reported.
+     *
+     * @return {@link com.ikknight.octofault.utils.Clock#nanoTime()} of the latest report
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * Gets when the fault was first reported since it was last cleared.
+     *
+     * @return {@link com.ikknight.octofault.utils.Clock#nanoTime()} of the first report
+     */
+    public long getFirstSeenNanos() {
+        return firstSeenNanos;
+    }
+
+    /**
+     * Gets the monitor's {@link DeviceMonitor#getFaultVersion() fault version} right after this fault was raised. Unlike timestamps it tells raises apart even when the clock did not advance.
+     *
+     * @return Fault version of the raise
+     */
+    public int getRaiseVersion() {
+        return raiseVersion;
+    }
+
+    /**
+     * Gets the measured value that triggered the fault.
+     *
+     * @return The measured value, NaN if none was recorded
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Checks if a measured value was recorded with the fault.
+     *
+     * @return True if {@link #getValue()} is meaningful
+     */
+    public boolean hasValue() {
+        return hasValue;
+    }
+
+    /**
+     * Gets extra detail, such as an exception message or the text of a {@link FaultCode#CUSTOM} fault.
+     *
+     * @return Detail text, or null
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Gets how many times the fault was reported since it was last cleared.
+     *
+     * @return Occurrence count
+     */
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     * Appends the human-readable form of this fault, e.g. {@code WARNING: leftFront: Encoder not moving despite power (stalled)}.
+     *
+     * @param out Builder to append to
+     * @return The same builder
+     */
+    public StringBuilder render(StringBuilder out) {
+        return describe(out.append(severity).append(": "));
+    }
+
+    /**
+     * Appends the human-readable form of this fault without the severity prefix, e.g. {@code leftFront: Encoder not moving despite power (stalled)}.
+     *
+     * @param out Builder to append to
+     * @return The same builder
+     */
+    public StringBuilder describe(StringBuilder out) {
+        if (code == FaultCode.CUSTOM) {
+            // legacy reasons already carry whatever prefix the monitor gave them
+            return out.append(detail);
+        }
+        out.append(monitorName).append(": ").append(code.getDescription());
+        if (detail != null) {
+            out.append(": ").append(detail);
+        } else if (hasValue) {
+            out.append(": ").append(value);
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return render(new StringBuilder()).toString();
+    }
+}
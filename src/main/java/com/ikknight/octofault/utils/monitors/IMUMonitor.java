@@ -1,7 +1,5 @@
 package com.ikknight.octofault.utils.monitors;
 
-import android.annotation.SuppressLint;
-
 import com.ikknight.octofault.utils.LoggingStream;
 import com.qualcomm.robotcore.hardware.IMU;
 import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
@@ -13,6 +11,23 @@ import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
  */
 public class IMUMonitor extends DeviceMonitor<IMU> {
 
+    /** Sample channel holding the yaw in degrees. */
+    public static final int CHANNEL_YAW = 0;
+    /** Sample channel holding the pitch in degrees. */
+    public static final int CHANNEL_PITCH = 1;
+    /** Sample channel holding the roll in degrees. */
+    public static final int CHANNEL_ROLL = 2;
+    /** Sample channel holding the yaw rate in degrees per second. */
+    public static final int CHANNEL_YAW_RATE = 3;
+
+    /** Value cache group of the orientation read: yaw, pitch and roll in degrees, then 1 if the IMU returned angles, 0 if not. */
+    public static final String READ_ORIENTATION = "orientation";
+
+    private static final String[] CHANNEL_NAMES = {"yaw", "pitch", "roll", "yawRate"};
+
+    private final int orientationRead;
+    private final int yawRateRead;
+
     /**
      * Creates an IMU monitor.
      *
@@ -20,7 +35,20 @@ public class IMUMonitor extends DeviceMonitor<IMU> {
      * @param device IMU instance
      */
     public IMUMonitor(String name, IMU device) {
-        super(name, device);
+        super(name, device, CHANNEL_NAMES);
+        orientationRead = registerRead(READ_ORIENTATION, 4, values -> {
+            YawPitchRollAngles angles = this.device.getRobotYawPitchRollAngles();
+            values[0] = angles == null ? Double.NaN : angles.getYaw(AngleUnit.DEGREES);
+            values[1] = angles == null ? Double.NaN : angles.getPitch(AngleUnit.DEGREES);
+            values[2] = angles == null ? Double.NaN : angles.getRoll(AngleUnit.DEGREES);
+            values[3] = angles == null ? 0 : 1;
+        });
+        // yaw rate is read as its own value since velocity and angles are separate hub calls
+        yawRateRead = registerRead("yawRate", 2, values -> {
+            AngularVelocity velocity = this.device.getRobotAngularVelocity(AngleUnit.DEGREES);
+            values[0] = velocity == null ? Double.NaN : velocity.zRotationRate;
+            values[1] = velocity == null ? 0 : 1;
+        });
     }
 
     @Override
@@ -28,29 +56,33 @@ public class IMUMonitor extends DeviceMonitor<IMU> {
         boolean errorsInThisUpdate = false;
 
         try {
-            AngularVelocity velocity = device.getRobotAngularVelocity(AngleUnit.DEGREES);
-            if (velocity == null) {
-                reportFault(LoggingStream.LogLevel.WARNING, name + ": Angular velocity data unavailable");
+            double yawRate = read(yawRateRead, 0);
+            if (read(yawRateRead, 1) == 0) {
+                reportFault(FaultCode.ANGULAR_VELOCITY_UNAVAILABLE, LoggingStream.LogLevel.WARNING);
                 errorsInThisUpdate = true;
+            } else {
+                recordSample(CHANNEL_YAW_RATE, yawRate);
             }
 
-            YawPitchRollAngles angles = device.getRobotYawPitchRollAngles();
-            if (angles == null) {
-                reportFault(LoggingStream.LogLevel.ERROR, name + ": YawPitchRollAngles data unavailable");
+            double yaw = read(orientationRead, 0);
+            if (read(orientationRead, 3) == 0) {
+                reportFault(FaultCode.ORIENTATION_UNAVAILABLE, LoggingStream.LogLevel.ERROR);
                 errorsInThisUpdate = true;
             } else {
-                double yaw = angles.getYaw(AngleUnit.DEGREES);
-                double pitch = angles.getPitch(AngleUnit.DEGREES);
-                double roll = angles.getRoll(AngleUnit.DEGREES);
+                double pitch = read(orientationRead, 1);
+                double roll = read(orientationRead, 2);
+                recordSample(CHANNEL_YAW, yaw);
+                recordSample(CHANNEL_PITCH, pitch);
+                recordSample(CHANNEL_ROLL, roll);
 
                 if (Double.isNaN(yaw) || Double.isNaN(pitch) || Double.isNaN(roll)) {
-                    reportFault(LoggingStream.LogLevel.WARNING, name + ": Yaw, Pitch, or Roll is NaN");
+                    reportFault(FaultCode.ORIENTATION_NAN, LoggingStream.LogLevel.WARNING);
                     errorsInThisUpdate = true;
                 }
             }
 
         } catch (Exception e) {
-            reportFault(LoggingStream.LogLevel.ERROR, name + ": Exception during IMU read: " + e.getMessage());
+            reportFault(FaultCode.IMU_READ_FAILED, LoggingStream.LogLevel.ERROR, e.getMessage());
             errorsInThisUpdate = true;
         }
 
@@ -59,20 +91,6 @@ public class IMUMonitor extends DeviceMonitor<IMU> {
         }
     }
 
-    @SuppressLint("DefaultLocale")
-    @Override
-    public Object getCurrentValue() {
-        try {
-            YawPitchRollAngles a = device.getRobotYawPitchRollAngles();
-            return String.format("Orientation [°]: Yaw: %.1f, Pitch: %.1f, Roll: %.1f",
-                    a.getYaw(AngleUnit.DEGREES),
-                    a.getPitch(AngleUnit.DEGREES),
-                    a.getRoll(AngleUnit.DEGREES));
-        } catch (Exception e) {
-            return LoggingStream.LogLevel.DEBUG+": Failed to read IMU: " + e.getMessage();
-        }
-    }
-
     @Override
     public String getDeviceType() {
         return "IMU";
@@ -0,0 +1,147 @@
+package com.ikknight.octofault.utils.monitors;
+
+/**
+ * Reusable, typed view of what a monitor read during its last update: health, fault count and named primitive channels such as power, position or yaw. Filling a snapshot copies values already sampled by {@link DeviceMonitor#update()}, so it costs no hardware reads and, reusing the same instance, no allocation. Formatting is left to the consumer.
+ *
+ * @see DeviceMonitor#fillSnapshot(MonitorSnapshot)
+ */
+public final class MonitorSnapshot {
+
+    private String monitorName;
+    private String deviceType;
+    private boolean healthy = true;
+    private int faultCount = 0;
+    private final String[] channelNames = new String[DeviceMonitor.MAX_SAMPLES];
+    private final double[] values = new double[DeviceMonitor.MAX_SAMPLES];
+    private int channelCount = 0;
+
+    void reset(String monitorName, String deviceType, boolean healthy, int faultCount) {
+        this.monitorName = monitorName;
+        this.deviceType = deviceType;
+        this.healthy = healthy;
+        this.faultCount = faultCount;
+        this.channelCount = 0;
+    }
+
+    void put(String channelName, double value) {
+        channelNames[channelCount] = channelName;
+        values[channelCount] = value;
+        channelCount++;
+    }
+
+    /**
+     * Gets the name of the monitor the snapshot was taken from.
+     *
+     * @return Monitor name, null if never filled
+     */
+    public String getMonitorName() {
+        return monitorName;
+    }
+
+    /**
+     * Gets the device type of the monitor.
+     *
+     * @return Device type, null if never filled
+     */
+    public String getDeviceType() {
+        return deviceType;
+    }
+
+    /**
+     * Checks if the device was healthy.
+     *
+     * @return True if no faults were active
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Gets the number of active faults.
+     *
+     * @return Fault count
+     */
+    public int getFaultCount() {
+        return faultCount;
+    }
+
+    /**
+     * Gets the number of channels.
+     *
+     * @return Channel count
+     */
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    /**
+     * Gets the name of a channel.
+     *
+     * @param channel Channel in [0, {@link #getChannelCount()})
+     * @return Channel name, for example {@code "velocity"}
+     */
+    public String getChannelName(int channel) {
+        checkChannel(channel);
+        return channelNames[channel];
+    }
+
+    /**
+     * Gets the value of a channel.
+     *
+     * @param channel Channel in [0, {@link #getChannelCount()})
+     * @return The value, NaN if the channel was not read
+     */
+    public double getValue(int channel) {
+        checkChannel(channel);
+        return values[channel];
+    }
+
+    /**
+     * Gets the value of a channel by name.
+     *
+     * @param channelName Channel name
+     * @return The value, NaN if there is no such channel or it was not read
+     */
+    public double getValue(String channelName) {
+        int channel = indexOf(channelName);
+        return channel < 0 ? Double.NaN : values[channel];
+    }
+
+    /**
+     * Finds a channel by name.
+     *
+     * @param channelName Channel name
+     * @return Channel index, -1 if there is no such channel
+     */
+    public int indexOf(String channelName) {
+        for (int i = 0; i < channelCount; i++) {
+            if (channelNames[i].equals(channelName)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the channels as {@code name: value} pairs.
+     *
+     * @param builder Builder to append to
+     * @return The same builder
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        for (int i = 0; i < channelCount; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(channelNames[i]).append(": ").append(values[i]);
+        }
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    private void checkChannel(int channel) {
+        if (channel < 0 || channel >= channelCount) {
+            throw new IndexOutOfBoundsException("Channel " + channel + ", count " + channelCount);
+        }
+    }
+}
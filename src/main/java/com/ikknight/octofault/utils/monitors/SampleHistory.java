@@ -0,0 +1,269 @@
+package com.ikknight.octofault.utils.monitors;
+
+/**
+ * Fixed-capacity history of one sample channel with rolling statistics over a time window. Values and timestamps live in primitive ring buffers allocated at construction; mean, variance and least-squares slope are kept as running sums and min/max as monotonic queues, so adding a sample and reading any statistic are O(1) (amortized) with no allocation.
+ * <p>
+ * NaN samples are not stored, a burst of NaN readings shows up as a gap. Written by the monitor's update thread; other threads may read it, seeing statistics that are at most one sample behind.
+ *
+ * @see DeviceMonitor#enableHistory(int, int, long)
+ */
+public class SampleHistory {
+
+    private final int capacity;
+    private final long windowNanos;
+    private final double[] values;
+    private final long[] timestamps;
+    private int head = 0;
+    private int count = 0;
+    private long added = 0;
+
+    // min/max candidates as sample sequence numbers, front is the current extreme
+    private final long[] minQueue;
+    private final long[] maxQueue;
+    private int minHead = 0, minSize = 0;
+    private int maxHead = 0, maxSize = 0;
+
+    // running sums, time in seconds relative to baseNanos to keep the squares small
+    private long baseNanos = 0;
+    private double sumValue = 0, sumValueSquared = 0;
+    private double sumTime = 0, sumTimeSquared = 0, sumTimeValue = 0;
+    private int evictionsSinceRebuild = 0;
+
+    /**
+     * Creates an empty history.
+     *
+     * @param capacity Maximum number of samples kept
+     * @param windowMs Samples older than this, relative to the newest sample, are dropped; 0 to keep the last {@code capacity} samples regardless of age
+     */
+    public SampleHistory(int capacity, long windowMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.windowNanos = windowMs > 0 ? windowMs * 1_000_000L : Long.MAX_VALUE;
+        this.values = new double[capacity];
+        this.timestamps = new long[capacity];
+        this.minQueue = new long[capacity];
+        this.maxQueue = new long[capacity];
+    }
+
+    /**
+     * Adds a sample, dropping the oldest ones that no longer fit in the capacity or the window.
+     *
+     * @param timestampNanos When the sample was read, in {@link com.ikknight.octofault.utils.Clock#nanoTime()} time
+     * @param value The sample; NaN is not stored but still ages out old samples
+     */
+    public void add(long timestampNanos, double value) {
+        while (count > 0 && timestampNanos - timestamps[head] > windowNanos) {
+            evictOldest();
+        }
+        if (Double.isNaN(value)) return;
+        if (count == capacity) {
+            evictOldest();
+        }
+        if (count == 0) {
+            baseNanos = timestampNanos;
+        }
+
+        int index = (head + count) % capacity;
+        values[index] = value;
+        timestamps[index] = timestampNanos;
+        long sequence = added++;
+        count++;
+
+        double time = (timestampNanos - baseNanos) / 1e9;
+        sumValue += value;
+        sumValueSquared += value * value;
+        sumTime += time;
+        sumTimeSquared += time * time;
+        sumTimeValue += time * value;
+
+        while (minSize > 0 && valueOf(minQueue[(minHead + minSize - 1) % capacity]) >= value) minSize--;
+        minQueue[(minHead + minSize++) % capacity] = sequence;
+        while (maxSize > 0 && valueOf(maxQueue[(maxHead + maxSize - 1) % capacity]) <= value) maxSize--;
+        maxQueue[(maxHead + maxSize++) % capacity] = sequence;
+    }
+
+    private void evictOldest() {
+        long sequence = added - count;
+        double value = values[head];
+        double time = (timestamps[head] - baseNanos) / 1e9;
+        head = (head + 1) % capacity;
+        count--;
+
+        if (minSize > 0 && minQueue[minHead] == sequence) {
+            minHead = (minHead + 1) % capacity;
+            minSize--;
+        }
+        if (maxSize > 0 && maxQueue[maxHead] == sequence) {
+            maxHead = (maxHead + 1) % capacity;
+            maxSize--;
+        }
+
+        // subtracting accumulates rounding error, so rebuild the sums from the buffer once per capacity evictions
+        if (++evictionsSinceRebuild >= capacity) {
+            rebuildSums();
+        } else {
+            sumValue -= value;
+            sumValueSquared -= value * value;
+            sumTime -= time;
+            sumTimeSquared -= time * time;
+            sumTimeValue -= time * value;
+        }
+    }
+
+    private void rebuildSums() {
+        evictionsSinceRebuild = 0;
+        sumValue = sumValueSquared = sumTime = sumTimeSquared = sumTimeValue = 0;
+        if (count == 0) return;
+        baseNanos = timestamps[head];
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) % capacity;
+            double value = values[index];
+            double time = (timestamps[index] - baseNanos) / 1e9;
+            sumValue += value;
+            sumValueSquared += value * value;
+            sumTime += time;
+            sumTimeSquared += time * time;
+            sumTimeValue += time * value;
+        }
+    }
+
+    private double valueOf(long sequence) {
+        return values[(int) (sequence % capacity)];
+    }
+
+    /**
+     * Gets the number of samples currently in the window.
+     *
+     * @return Sample count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the maximum number of samples kept.
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets a sample.
+     *
+     * @param index Position in [0, {@link #size()}), 0 being the oldest
+     * @return The sample value
+     */
+    public double get(int index) {
+        checkIndex(index);
+        return values[(head + index) % capacity];
+    }
+
+    /**
+     * Gets when a sample was read.
+     *
+     * @param index Position in [0, {@link #size()}), 0 being the oldest
+     * @return The sample timestamp in nanoseconds
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[(head + index) % capacity];
+    }
+
+    /**
+     * Gets the newest sample.
+     *
+     * @return The newest value, NaN if empty
+     */
+    public double getLatest() {
+        return count == 0 ? Double.NaN : values[(head + count - 1) % capacity];
+    }
+
+    /**
+     * Gets the time covered by the samples in the window.
+     *
+     * @return Time between the oldest and newest sample in nanoseconds
+     */
+    public long getSpanNanos() {
+        return count == 0 ? 0 : timestamps[(head + count - 1) % capacity] - timestamps[head];
+    }
+
+    /**
+     * Gets the mean of the window.
+     *
+     * @return Mean, NaN if empty
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : sumValue / count;
+    }
+
+    /**
+     * Gets the population variance of the window.
+     *
+     * @return Variance, NaN if empty
+     */
+    public double getVariance() {
+        if (count == 0) return Double.NaN;
+        double mean = sumValue / count;
+        return Math.max(0, sumValueSquared / count - mean * mean);
+    }
+
+    /**
+     * Gets the population standard deviation of the window.
+     *
+     * @return Standard deviation, NaN if empty
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Gets the smallest sample in the window.
+     *
+     * @return Minimum, NaN if empty
+     */
+    public double getMin() {
+        return minSize == 0 ? Double.NaN : valueOf(minQueue[minHead]);
+    }
+
+    /**
+     * Gets the largest sample in the window.
+     *
+     * @return Maximum, NaN if empty
+     */
+    public double getMax() {
+        return maxSize == 0 ? Double.NaN : valueOf(maxQueue[maxHead]);
+    }
+
+    /**
+     * Gets the trend of the window as the least-squares slope of value against time, for example encoder ticks per second.
+     *
+     * @return Change per second, 0 with fewer than two samples or all samples at the same time
+     */
+    public double getSlope() {
+        double denominator = count * sumTimeSquared - sumTime * sumTime;
+        if (count < 2 || denominator <= 1e-12) return 0;
+        return (count * sumTimeValue - sumTime * sumValue) / denominator;
+    }
+
+    /**
+     * Removes every sample.
+     */
+    public void clear() {
+        head = (int) (added % capacity);
+        count = 0;
+        minHead = minSize = 0;
+        maxHead = maxSize = 0;
+        evictionsSinceRebuild = 0;
+        sumValue = sumValueSquared = sumTime = sumTimeSquared = sumTimeValue = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Sample index " + index + ", size " + count);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.ikknight.octofault.utils.monitors;
 
-import android.annotation.SuppressLint;
-
 import com.ikknight.octofault.utils.LoggingStream;
 import com.qualcomm.robotcore.hardware.Servo;
 import com.qualcomm.robotcore.hardware.ServoController;
@@ -13,6 +11,13 @@ import com.qualcomm.robotcore.hardware.ServoImplEx;
  */
 public class ServoMonitor extends DeviceMonitor<Servo> {
 
+    /** Sample channel holding the commanded position. */
+    public static final int CHANNEL_POSITION = 0;
+
+    private static final String[] CHANNEL_NAMES = {"position"};
+
+    private final int positionRead;
+
     /**
      * Creates a servo monitor.
      *
@@ -20,15 +25,18 @@ public class ServoMonitor extends DeviceMonitor<Servo> {
      * @param device Servo instance
      */
     public ServoMonitor(String name, Servo device) {
-        super(name, device);
+        super(name, device, CHANNEL_NAMES);
+        positionRead = registerRead("position", 1, values -> values[0] = this.device.getPosition());
     }
 
     @Override
     public void update() {
         boolean errorsInThisUpdate = false;
 
-        if (device.getPosition() < 0.0 || device.getPosition() > 1.0 || Double.isNaN(device.getPosition())) {
-            reportFault(LoggingStream.LogLevel.ERROR, name + ": Position out of range (0.0–1.0), Or Servo position is unknown. (either undefined or the servo position is not set.)");
+        double position = read(positionRead);
+        recordSample(CHANNEL_POSITION, position);
+        if (position < 0.0 || position > 1.0 || Double.isNaN(position)) {
+            reportFault(FaultCode.SERVO_POSITION_INVALID, LoggingStream.LogLevel.ERROR, position);
             errorsInThisUpdate = true;
         }
 
@@ -37,16 +45,16 @@ public class ServoMonitor extends DeviceMonitor<Servo> {
             try {
                 boolean pwm = advancedServo.isPwmEnabled();
                 if (!pwm) {
-                    reportFault(LoggingStream.LogLevel.ERROR, name + ": PWM is not enabled for ServoImplEx");
+                    reportFault(FaultCode.PWM_DISABLED, LoggingStream.LogLevel.ERROR);
                     errorsInThisUpdate = true;
                 }
             }catch (Exception e){
-                reportFault(LoggingStream.LogLevel.ERROR, name + ": Error reading PWM status: " + e.getMessage());
+                reportFault(FaultCode.PWM_READ_FAILED, LoggingStream.LogLevel.ERROR, e.getMessage());
                 errorsInThisUpdate = true;
             }
         }else {
             if (!device.getController().getPwmStatus().equals(ServoController.PwmStatus.ENABLED)){
-                reportFault(LoggingStream.LogLevel.ERROR, name + ": PWM is not enabled for Servo");
+                reportFault(FaultCode.PWM_DISABLED, LoggingStream.LogLevel.ERROR);
                 errorsInThisUpdate = true;
             }
         }
@@ -56,21 +64,6 @@ public class ServoMonitor extends DeviceMonitor<Servo> {
         }
     }
 
-    @SuppressLint("DefaultLocale")
-    @Override
-    public Object getCurrentValue() {
-        boolean pwmEnabled;
-        if (device instanceof ServoImplEx) {
-            pwmEnabled = ((ServoImplEx) device).isPwmEnabled();
-        } else {
-            pwmEnabled = device.getController().getPwmStatus().equals(ServoController.PwmStatus.ENABLED);
-        }
-
-        return String.format("Target Position: %.2f, PWM Enabled: %s",
-                device.getPosition(),
-                pwmEnabled);
-    }
-
     @Override
     public String getDeviceType() {
         if(device instanceof ServoImplEx){
@@ -1,7 +1,5 @@
 package com.ikknight.octofault.utils.monitors;
 
-import android.annotation.SuppressLint;
-
 import com.ikknight.octofault.utils.LoggingStream;
 import com.qualcomm.robotcore.hardware.TouchSensor;
 
@@ -10,6 +8,13 @@ import com.qualcomm.robotcore.hardware.TouchSensor;
  */
 public class TouchSensorMonitor extends DeviceMonitor<TouchSensor> {
 
+    /** Sample channel holding the raw sensor value. */
+    public static final int CHANNEL_VALUE = 0;
+
+    private static final String[] CHANNEL_NAMES = {"value"};
+
+    private final int valueRead;
+
     /**
      * Creates a touch sensor monitor.
      *
@@ -17,7 +22,8 @@ public class TouchSensorMonitor extends DeviceMonitor<TouchSensor> {
      * @param device Touch sensor instance
      */
     public TouchSensorMonitor(String name, TouchSensor device) {
-        super(name, device);
+        super(name, device, CHANNEL_NAMES);
+        valueRead = registerRead("value", 1, values -> values[0] = this.device.getValue());
     }
 
     @Override
@@ -25,18 +31,19 @@ public class TouchSensorMonitor extends DeviceMonitor<TouchSensor> {
         boolean errorsInThisUpdate = false;
 
         try {
-            double value = device.getValue();
+            double value = read(valueRead);
+            recordSample(CHANNEL_VALUE, value);
 
             if (Double.isNaN(value)) {
-                reportFault(LoggingStream.LogLevel.ERROR, name + ": Touch sensor reading is NaN.");
+                reportFault(FaultCode.TOUCH_NAN, LoggingStream.LogLevel.ERROR);
                 errorsInThisUpdate = true;
             } else if (value < 0.0 || value > 1.0) {
-                reportFault(LoggingStream.LogLevel.WARNING, name + ": Touch sensor value out of expected range [0.0–1.0].");
+                reportFault(FaultCode.TOUCH_OUT_OF_RANGE, LoggingStream.LogLevel.WARNING, value);
                 errorsInThisUpdate = true;
             }
 
         } catch (Exception e) {
-            reportFault(LoggingStream.LogLevel.ERROR, name + ": Exception during touch sensor read: " + e.getMessage());
+            reportFault(FaultCode.TOUCH_READ_FAILED, LoggingStream.LogLevel.ERROR, e.getMessage());
             errorsInThisUpdate = true;
         }
 
@@ -45,12 +52,6 @@ public class TouchSensorMonitor extends DeviceMonitor<TouchSensor> {
         }
     }
 
-    @SuppressLint("DefaultLocale")
-    @Override
-    public Object getCurrentValue() {
-        return String.format("Touched: %s, Value: %.2f", device.isPressed(), device.getValue());
-    }
-
     @Override
     public String getDeviceType() {
         return "Touch Sensor";
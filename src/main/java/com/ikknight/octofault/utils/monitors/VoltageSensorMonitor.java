@@ -1,11 +1,44 @@
 package com.ikknight.octofault.utils.monitors;
 
+import com.ikknight.octofault.utils.Clock;
+import com.ikknight.octofault.utils.LoggingStream;
 import com.qualcomm.robotcore.hardware.VoltageSensor;
 
 /**
- *  Voltage Sensor Monitor, used to monitor voltage sensors.
+ * Voltage Sensor Monitor, used to monitor voltage sensors. Detects brownouts before they reset the hubs with a streaming detector costing O(1) time, no allocation and one voltage read per update. Checks for: - Sharp dips below a slow moving baseline (EWMA) - Sustained sag below the low voltage threshold, integrated over time (one-sided CUSUM) so short spikes are ignored - Critically low voltage - NaN or non-positive readings. With motor monitors attached, dips are correlated with the total motor power sampled during their last update: dips without load point to a bad battery connection rather than current draw.
  */
 public class VoltageSensorMonitor extends DeviceMonitor<VoltageSensor> {
+    /** Sample channel holding the battery voltage in volts. */
+    public static final int CHANNEL_VOLTAGE = 0;
+    /** Sample channel holding the slow moving baseline voltage in volts. */
+    public static final int CHANNEL_BASELINE = 1;
+    /** Sample channel holding the total absolute power of the attached motors, only recorded when motors are attached. */
+    public static final int CHANNEL_MOTOR_POWER = 2;
+
+    private static final String[] CHANNEL_NAMES = {"voltage", "baseline", "motorPower"};
+
+    // longer gaps between updates (paused OpMode, budget overruns) are not integrated in full
+    private static final double MAX_STEP_SECONDS = 0.5;
+
+    private double lowVoltage = 11.0;
+    private double sagToleranceVoltSeconds = 0.5;
+    private double dipThreshold = 1.5;
+    private double criticalVoltage = 8.0;
+    private double baselineTimeConstantSeconds = 5.0;
+    private double unloadedPowerThreshold = 0.5;
+
+    private DcMotorMonitor[] motors = new DcMotorMonitor[0];
+    private final int voltageRead;
+
+    private long lastNanos = 0;
+    private boolean initialized = false;
+    private double baseline = Double.NaN;
+    private double sagIntegral = 0;
+    private boolean dipping = false;
+
+    // exponentially weighted moments of (power, voltage) for the load sensitivity estimate
+    private double meanPower = 0, meanVoltage = 0, covariance = 0, powerVariance = 0;
+
     /**
      * Creates a device monitor.
      *
@@ -13,17 +46,184 @@ public class VoltageSensorMonitor extends DeviceMonitor<VoltageSensor> {
      * @param device Hardware device instance
      */
     public VoltageSensorMonitor(String name, VoltageSensor device) {
-        super(name, device);
+        super(name, device, CHANNEL_NAMES);
+        voltageRead = registerRead("voltage", 1, values -> values[0] = this.device.getVoltage());
     }
 
     @Override
     public void update() {
-        
+        double voltage;
+        try {
+            voltage = read(voltageRead);
+        } catch (Exception e) {
+            reportFault(FaultCode.VOLTAGE_READ_FAILED, LoggingStream.LogLevel.ERROR, e.getMessage());
+            return;
+        }
+        recordSample(CHANNEL_VOLTAGE, voltage);
+
+        if (Double.isNaN(voltage) || voltage <= 0) {
+            reportFault(FaultCode.VOLTAGE_INVALID, LoggingStream.LogLevel.ERROR, voltage);
+            return;
+        }
+
+        long now = Clock.nanoTime();
+        double dt = initialized ? Math.min(MAX_STEP_SECONDS, (now - lastNanos) / 1e9) : 0;
+        lastNanos = now;
+
+        double power = 0;
+        for (DcMotorMonitor motor : motors) {
+            double motorPower = motor.getSample(DcMotorMonitor.CHANNEL_POWER);
+            if (!Double.isNaN(motorPower)) power += Math.abs(motorPower);
+        }
+
+        if (!initialized) {
+            initialized = true;
+            baseline = voltage;
+            meanPower = power;
+            meanVoltage = voltage;
+        }
+
+        boolean errorsInThisUpdate = false;
+
+        // sharp dips are measured against the baseline before it absorbs this reading
+        double depth = baseline - voltage;
+        dipping = dipping ? depth > dipThreshold / 2 : depth > dipThreshold;
+        if (dipping) {
+            boolean unloaded = motors.length > 0 && power < unloadedPowerThreshold;
+            reportFault(unloaded ? FaultCode.VOLTAGE_DIP_UNLOADED : FaultCode.VOLTAGE_DIP, LoggingStream.LogLevel.WARNING, voltage);
+            errorsInThisUpdate = true;
+        }
+
+        double alpha = 1 - Math.exp(-dt / baselineTimeConstantSeconds);
+        baseline += alpha * (voltage - baseline);
+        recordSample(CHANNEL_BASELINE, baseline);
+
+        if (motors.length > 0) {
+            recordSample(CHANNEL_MOTOR_POWER, power);
+            double powerDelta = power - meanPower;
+            double voltageDelta = voltage - meanVoltage;
+            meanPower += alpha * powerDelta;
+            meanVoltage += alpha * voltageDelta;
+            covariance = (1 - alpha) * (covariance + alpha * powerDelta * voltageDelta);
+            powerVariance = (1 - alpha) * (powerVariance + alpha * powerDelta * powerDelta);
+        }
+
+        // integrates volt-seconds spent below the low threshold and drains at the same rate above it
+        sagIntegral = Math.max(0, sagIntegral + (lowVoltage - voltage) * dt);
+        if (sagIntegral > sagToleranceVoltSeconds) {
+            reportFault(FaultCode.VOLTAGE_SAG, LoggingStream.LogLevel.WARNING, voltage);
+            errorsInThisUpdate = true;
+            // cap so recovery takes about as long as the tolerance, not as long as the sag lasted
+            sagIntegral = Math.min(sagIntegral, 2 * sagToleranceVoltSeconds);
+        }
+
+        if (voltage < criticalVoltage) {
+            reportFault(FaultCode.VOLTAGE_CRITICAL, LoggingStream.LogLevel.ERROR, voltage);
+            errorsInThisUpdate = true;
+        }
+
+        if (!errorsInThisUpdate) {
+            clearFaults();
+        }
     }
 
-    @Override
-    public Object getCurrentValue() {
-        return device.getVoltage();
+    /**
+     * Attaches the motors whose power is correlated with voltage dips. Their power is taken from the samples of their last update, so no extra hardware reads are made.
+     *
+     * @param motors Motor monitors, none to disable correlation
+     */
+    public void setMotorMonitors(DcMotorMonitor... motors) {
+        this.motors = motors.clone();
+    }
+
+    /**
+     * Sets the voltage below which the battery is considered sagging.
+     *
+     * @param lowVoltage Low voltage threshold in volts
+     */
+    public void setLowVoltage(double lowVoltage) {
+        this.lowVoltage = lowVoltage;
+    }
+
+    /**
+     * Sets how much time below the low threshold, weighted by how far below, is tolerated before reporting a sag. For example 0.5 reports after 1s at 0.5V below the threshold, or 0.25s at 2V below.
+     *
+     * @param sagToleranceVoltSeconds Tolerance in volt-seconds
+     */
+    public void setSagTolerance(double sagToleranceVoltSeconds) {
+        this.sagToleranceVoltSeconds = Math.max(0, sagToleranceVoltSeconds);
+    }
+
+    /**
+     * Sets how far below the baseline a reading must drop to be reported as a dip. The dip is cleared once the voltage recovers to within half of this.
+     *
+     * @param dipThreshold Dip depth in volts
+     */
+    public void setDipThreshold(double dipThreshold) {
+        this.dipThreshold = Math.max(0, dipThreshold);
+    }
+
+    /**
+     * Sets the voltage below which a brownout is imminent.
+     *
+     * @param criticalVoltage Critical voltage in volts
+     */
+    public void setCriticalVoltage(double criticalVoltage) {
+        this.criticalVoltage = criticalVoltage;
+    }
+
+    /**
+     * Sets how quickly the baseline follows the voltage. Longer makes dips stand out more but adapts slower to the battery draining.
+     *
+     * @param timeConstantMs Baseline time constant in milliseconds
+     */
+    public void setBaselineTimeConstantMs(long timeConstantMs) {
+        this.baselineTimeConstantSeconds = Math.max(1, timeConstantMs) / 1000.0;
+    }
+
+    /**
+     * Sets the total motor power below which a dip is reported as happening without load.
+     *
+     * @param unloadedPowerThreshold Total absolute power of the attached motors
+     */
+    public void setUnloadedPowerThreshold(double unloadedPowerThreshold) {
+        this.unloadedPowerThreshold = unloadedPowerThreshold;
+    }
+
+    /**
+     * Gets the slow moving baseline the dips are measured against.
+     *
+     * @return Baseline in volts, NaN before the first valid reading
+     */
+    public double getBaselineVoltage() {
+        return baseline;
+    }
+
+    /**
+     * Gets how far the sag detector is towards reporting a sag.
+     *
+     * @return Accumulated volt-seconds below the low threshold, a sag is reported above the tolerance
+     */
+    public double getSagIntegral() {
+        return sagIntegral;
+    }
+
+    /**
+     * Gets the estimated voltage drop per unit of total motor power, from how voltage and attached motor power moved together over about one baseline time constant.
+     *
+     * @return Volts dropped per unit power, 0 without attached motors or before the power has varied
+     */
+    public double getLoadSensitivity() {
+        return powerVariance > 1e-6 ? -covariance / powerVariance : 0;
+    }
+
+    /**
+     * Checks whether a brownout is likely soon: the voltage is dipping, sagging or critical. Meant to be acted on in the same loop, for example by lowering drive power.
+     *
+     * @return True if any brownout condition was detected by the last update
+     */
+    public boolean isBrownoutRisk() {
+        return dipping || sagIntegral > sagToleranceVoltSeconds || (initialized && getSample(CHANNEL_VOLTAGE) < criticalVoltage);
     }
 
     @Override
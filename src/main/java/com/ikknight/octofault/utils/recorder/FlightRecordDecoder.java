@@ -0,0 +1,158 @@
+package com.ikknight.octofault.utils.recorder;
+
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts a {@link FlightRecorder} file to CSV. Only uses plain Java, so it runs on a desktop JVM with the Octofault classes on the classpath:
+ * {@code java -cp octofault.jar com.ikknight.octofault.utils.recorder.FlightRecordDecoder octofault-flight.bin flight.csv}
+ * <p>
+ * One row per record, oldest first, with columns: time since recording start (ms), wall-clock time (epoch ms), monitor name, device type, healthy flag, fault count, active fault codes separated by {@code |}, and one column per sample channel.
+ */
+public final class FlightRecordDecoder {
+
+    // not FlightRecorder's, touching that class would load the robot-only AppUtil on a desktop
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private FlightRecordDecoder() {
+    }
+
+    /**
+     * Decodes a recording to CSV.
+     *
+     * @param args Recording file, and optionally the CSV file to write (standard output if omitted)
+     * @throws IOException If the recording cannot be read or the CSV cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: FlightRecordDecoder <recording.bin> [output.csv]");
+            System.exit(2);
+        }
+        Writer out = args.length > 1
+                ? new OutputStreamWriter(new FileOutputStream(args[1]), UTF_8)
+                : new OutputStreamWriter(System.out, UTF_8);
+        try {
+            long rows = decode(new File(args[0]), out);
+            System.err.println("Decoded " + rows + " records");
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Decodes a recording to CSV.
+     *
+     * @param recording The recording file
+     * @param output Where to write the CSV
+     * @return Number of records decoded
+     * @throws IOException If the recording is invalid or cannot be read
+     */
+    public static long decode(File recording, Writer output) throws IOException {
+        ByteBuffer buffer;
+        try (RandomAccessFile file = new RandomAccessFile(recording, "r")) {
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(FlightRecorder.HEADER_MAGIC) != FlightRecorder.MAGIC) {
+            throw new IOException(recording + " is not an Octofault flight recording");
+        }
+        int version = buffer.getInt(FlightRecorder.HEADER_VERSION);
+        if (version != FlightRecorder.VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+        int recordSize = buffer.getInt(FlightRecorder.HEADER_RECORD_SIZE);
+        int capacity = buffer.getInt(FlightRecorder.HEADER_CAPACITY);
+        long writeCount = buffer.getLong(FlightRecorder.HEADER_WRITE_COUNT);
+        long startEpochMillis = buffer.getLong(FlightRecorder.HEADER_START_EPOCH_MILLIS);
+        long startNanos = buffer.getLong(FlightRecorder.HEADER_START_NANOS);
+        int monitorCount = buffer.getInt(FlightRecorder.HEADER_MONITOR_COUNT);
+
+        int[] position = {FlightRecorder.HEADER_TABLES};
+        int codeCount = buffer.getShort(position[0]);
+        position[0] += 2;
+        String[] codes = new String[codeCount];
+        for (int i = 0; i < codeCount; i++) {
+            codes[i] = readString(buffer, position);
+        }
+        List<String> names = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        for (int i = 0; i < monitorCount; i++) {
+            names.add(readString(buffer, position));
+            types.add(readString(buffer, position));
+        }
+
+        PrintWriter csv = new PrintWriter(output);
+        csv.print("time_ms,epoch_ms,monitor,device_type,healthy,fault_count,faults");
+        for (int i = 0; i < DeviceMonitor.MAX_SAMPLES; i++) {
+            csv.print(",s" + i);
+        }
+        csv.println();
+
+        long first = writeCount > capacity ? writeCount - capacity : 0;
+        StringBuilder row = new StringBuilder();
+        for (long n = first; n < writeCount; n++) {
+            int base = FlightRecorder.HEADER_SIZE + (int) (n % capacity) * recordSize;
+            long timestamp = buffer.getLong(base + FlightRecorder.RECORD_TIMESTAMP);
+            int id = buffer.getInt(base + FlightRecorder.RECORD_MONITOR_ID);
+            int sampleCount = buffer.get(base + FlightRecorder.RECORD_SAMPLE_COUNT);
+            boolean healthy = buffer.get(base + FlightRecorder.RECORD_HEALTHY) != 0;
+            int faultCount = buffer.getShort(base + FlightRecorder.RECORD_FAULT_COUNT);
+            long faultBits = buffer.getLong(base + FlightRecorder.RECORD_FAULT_BITS);
+
+            double elapsedMillis = (timestamp - startNanos) / 1_000_000.0;
+            row.setLength(0);
+            row.append(elapsedMillis).append(',')
+                    .append(startEpochMillis + (long) elapsedMillis).append(',')
+                    .append(quote(id < names.size() ? names.get(id) : "#" + id)).append(',')
+                    .append(quote(id < types.size() ? types.get(id) : "")).append(',')
+                    .append(healthy).append(',')
+                    .append(faultCount).append(',');
+            boolean firstCode = true;
+            for (int bit = 0; bit < 64; bit++) {
+                if ((faultBits & (1L << bit)) == 0) continue;
+                if (!firstCode) row.append('|');
+                row.append(bit < codes.length ? codes[bit] : "#" + bit);
+                firstCode = false;
+            }
+            for (int i = 0; i < DeviceMonitor.MAX_SAMPLES; i++) {
+                row.append(',');
+                if (i < sampleCount) {
+                    row.append(buffer.getDouble(base + FlightRecorder.RECORD_SAMPLES + i * 8));
+                }
+            }
+            csv.println(row);
+        }
+        csv.flush();
+        return writeCount - first;
+    }
+
+    private static String readString(ByteBuffer buffer, int[] position) {
+        int length = buffer.getShort(position[0]);
+        position[0] += 2;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position[0] + i);
+        }
+        position[0] += length;
+        return new String(bytes, UTF_8);
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
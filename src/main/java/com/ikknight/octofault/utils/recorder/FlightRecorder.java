@@ -0,0 +1,215 @@
+package com.ikknight.octofault.utils.recorder;
+
+import com.ikknight.octofault.utils.Clock;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+import com.ikknight.octofault.utils.monitors.FaultCode;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Records what every monitor read, tick by tick, into a memory-mapped ring file on the hub's storage so a mid-match fault can be inspected afterwards. Records are fixed size and written with absolute puts into the mapping: no allocation and no system call per tick, the OS writes dirty pages back on its own. Decode a recording on a desktop with {@link FlightRecordDecoder}.
+ * <p>
+ * File layout (little endian): a {@value #HEADER_SIZE} byte header with the format version, record count, start time, the {@link FaultCode} names and a table of monitor names, followed by {@code capacity} records of {@value #RECORD_SIZE} bytes: timestamp (long), monitor id (int), sample count (byte), healthy flag (byte), fault count (short), fault code bits (long) and {@value DeviceMonitor#MAX_SAMPLES} samples (double).
+ *
+ * @see com.ikknight.octofault.core.FaultManager#setFlightRecorder(FlightRecorder)
+ */
+public class FlightRecorder {
+
+    static final int MAGIC = 0x4F435446; // "OCTF"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8192;
+    static final int RECORD_SIZE = 96;
+
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_RECORD_SIZE = 8;
+    static final int HEADER_CAPACITY = 12;
+    static final int HEADER_WRITE_COUNT = 16;
+    static final int HEADER_START_EPOCH_MILLIS = 24;
+    static final int HEADER_START_NANOS = 32;
+    static final int HEADER_MONITOR_COUNT = 40;
+    static final int HEADER_TABLES = 44;
+
+    static final int RECORD_TIMESTAMP = 0;
+    static final int RECORD_MONITOR_ID = 8;
+    static final int RECORD_SAMPLE_COUNT = 12;
+    static final int RECORD_HEALTHY = 13;
+    static final int RECORD_FAULT_COUNT = 14;
+    static final int RECORD_FAULT_BITS = 16;
+    static final int RECORD_SAMPLES = 24;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Default recording location on the Control Hub.
+     */
+    public static final File DEFAULT_FILE = new File(AppUtil.ROBOT_DATA_DIR, "octofault-flight.bin");
+
+    /**
+     * Default capacity, about 25MB and a full match of 20 monitors at 50Hz.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private long writeCount = 0;
+    private int monitorCount = 0;
+    private int tablePosition;
+
+    /**
+     * Creates a recorder at {@link #DEFAULT_FILE} with {@link #DEFAULT_CAPACITY} records.
+     *
+     * @throws IOException If the file cannot be created or mapped
+     */
+    public FlightRecorder() throws IOException {
+        this(DEFAULT_FILE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a recorder, replacing any previous recording in the file.
+     *
+     * @param path File to record into
+     * @param capacity Number of records kept before the oldest are overwritten
+     * @throws IOException If the file cannot be created or mapped
+     */
+    public FlightRecorder(File path, int capacity) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        File parent = path.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        this.capacity = capacity;
+        long length = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+        this.file = new RandomAccessFile(path, "rw");
+        try {
+            file.setLength(0);
+            file.setLength(length);
+            this.buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        buffer.putInt(HEADER_VERSION, VERSION);
+        buffer.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+        buffer.putInt(HEADER_CAPACITY, capacity);
+        buffer.putLong(HEADER_WRITE_COUNT, 0);
+        buffer.putLong(HEADER_START_EPOCH_MILLIS, System.currentTimeMillis());
+        buffer.putLong(HEADER_START_NANOS, Clock.nanoTime());
+        buffer.putInt(HEADER_MONITOR_COUNT, 0);
+
+        // fault code names first so recordings stay readable if the enum changes
+        tablePosition = HEADER_TABLES;
+        FaultCode[] codes = FaultCode.values();
+        buffer.putShort(tablePosition, (short) codes.length);
+        tablePosition += 2;
+        for (FaultCode code : codes) {
+            writeString(code.name());
+        }
+    }
+
+    /**
+     * Assigns an id to a monitor and stores its name and type in the header. Call once per monitor, at registration.
+     *
+     * @param monitor The monitor to record
+     * @return The monitor's id, or -1 if the header has no room left (the monitor is then not recorded)
+     */
+    public synchronized int register(DeviceMonitor<?> monitor) {
+        byte[] name = monitor.getName().getBytes(UTF_8);
+        byte[] type = monitor.getDeviceType().getBytes(UTF_8);
+        if (tablePosition + 4 + name.length + type.length > HEADER_SIZE) {
+            return -1;
+        }
+        writeBytes(name);
+        writeBytes(type);
+        int id = monitorCount++;
+        buffer.putInt(HEADER_MONITOR_COUNT, monitorCount);
+        return id;
+    }
+
+    /**
+     * Appends one record with everything the monitor read during its last update. Allocation-free.
+     *
+     * @param id Id returned by {@link #register(DeviceMonitor)}
+     * @param monitor The monitor that was just updated
+     * @param timestampNanos {@link Clock#nanoTime()} of the update
+     */
+    public void record(int id, DeviceMonitor<?> monitor, long timestampNanos) {
+        if (id < 0) return;
+        int base = HEADER_SIZE + (int) (writeCount % capacity) * RECORD_SIZE;
+
+        int sampleCount = monitor.getSampleCount();
+        int faultCount = monitor.getFaultCount();
+        long faultBits = 0;
+        for (int i = 0; i < faultCount; i++) {
+            faultBits |= 1L << monitor.getFaultRecord(i).getCode().ordinal();
+        }
+
+        buffer.putLong(base + RECORD_TIMESTAMP, timestampNanos);
+        buffer.putInt(base + RECORD_MONITOR_ID, id);
+        buffer.put(base + RECORD_SAMPLE_COUNT, (byte) sampleCount);
+        buffer.put(base + RECORD_HEALTHY, (byte) (monitor.isHealthy() ? 1 : 0));
+        buffer.putShort(base + RECORD_FAULT_COUNT, (short) faultCount);
+        buffer.putLong(base + RECORD_FAULT_BITS, faultBits);
+        for (int i = 0; i < DeviceMonitor.MAX_SAMPLES; i++) {
+            buffer.putDouble(base + RECORD_SAMPLES + i * 8, i < sampleCount ? monitor.getSample(i) : Double.NaN);
+        }
+
+        writeCount++;
+        buffer.putLong(HEADER_WRITE_COUNT, writeCount);
+    }
+
+    /**
+     * Gets the number of records written since creation, including overwritten ones.
+     *
+     * @return Record count
+     */
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * Gets the number of records kept in the ring.
+     *
+     * @return Capacity in records
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Flushes the mapping to storage and closes the file. The recorder must not be used afterwards.
+     *
+     * @throws IOException If the file cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        buffer.force();
+        file.close();
+    }
+
+    private void writeString(String value) {
+        writeBytes(value.getBytes(UTF_8));
+    }
+
+    private void writeBytes(byte[] bytes) {
+        buffer.putShort(tablePosition, (short) bytes.length);
+        tablePosition += 2;
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(tablePosition + i, bytes[i]);
+        }
+        tablePosition += bytes.length;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ikknight.octofault.sim;
+
+import com.ikknight.octofault.Octofault;
+import com.ikknight.octofault.core.FaultManager;
+import com.ikknight.octofault.utils.monitors.FaultCode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Deterministic 150s match on simulated hardware, checked against the fault timeline it must produce. Every run raises and clears the same faults at the same simulated times, so any change in detection shows up as a timeline mismatch.
+ */
+public class MatchScenarioTest {
+
+    // one loop of the simulated OpMode, a match is 7500 of them
+    private static final long TICK_MILLIS = 20;
+    // events are recorded on the first tick that sees them, so they may trail the scripted time by one tick
+    private static final double TOLERANCE_SECONDS = 0.05;
+
+    private VirtualClock clock;
+    private SimHardwareMap hardwareMap;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock();
+        hardwareMap = new SimHardwareMap(clock);
+    }
+
+    @After
+    public void tearDown() {
+        clock.uninstall();
+    }
+
+    @Test
+    public void matchProducesExpectedFaultTimeline() {
+        // lift powered the whole match, its encoder stalls between 5s and 8s
+        SimMotor lift = hardwareMap.add("lift", new SimMotor("lift"));
+        Trace encoder = Trace.ramp(0, 2000).stalled(5, 8);
+        hardwareMap.drive(Trace.constant(0.8), lift::simPower)
+                .drive(encoder, value -> lift.simPosition((int) value))
+                .drive(encoder.derivative(), lift::simVelocity);
+
+        // half a second of NaN readings at 20s
+        SimDistanceSensor distance = hardwareMap.add("distance", new SimDistanceSensor("distance"));
+        hardwareMap.drive(Trace.constant(30).withNanBurst(20, 0.5), distance::simDistance);
+
+        // drops off the I2C bus for one second at 40s
+        SimTouchSensor touch = hardwareMap.add("touch", new SimTouchSensor("touch"));
+        hardwareMap.failReads(touch, 40, 41, "I2C NACK");
+
+        // sags from 13V to 8V at 60s, recovering within a second
+        SimVoltageSensor battery = hardwareMap.add("battery", new SimVoltageSensor("battery"));
+        hardwareMap.drive(Trace.sag(13, 8, 60, 0.2, 1), battery::simVoltage);
+
+        Octofault octofault = new Octofault(hardwareMap, new FaultManager());
+        FaultTimeline actual = new FaultTimeline();
+        octofault.getFaultManager().addFaultListener(actual);
+        hardwareMap.run(150, TICK_MILLIS, octofault::update);
+
+        new FaultTimeline()
+                .expectRaised(5.02, "lift", FaultCode.VELOCITY_LOW)
+                .expectRaised(5.32, "lift", FaultCode.ENCODER_STALLED)
+                .expectCleared(8.02, "lift")
+                .expectRaised(20.0, "distance", FaultCode.DISTANCE_INVALID)
+                .expectCleared(20.5, "distance")
+                .expectRaised(40.0, "touch", FaultCode.TOUCH_READ_FAILED)
+                .expectCleared(41.0, "touch")
+                .expectRaised(60.08, "battery", FaultCode.VOLTAGE_DIP)
+                .expectRaised(60.32, "battery", FaultCode.VOLTAGE_SAG)
+                .expectCleared(61.26, "battery")
+                .assertMatches(actual, TOLERANCE_SECONDS);
+    }
+}
@@ -0,0 +1,190 @@
+package com.ikknight.octofault.sim;
+
+import com.ikknight.octofault.core.FaultListener;
+import com.ikknight.octofault.utils.Clock;
+import com.ikknight.octofault.utils.monitors.DeviceMonitor;
+import com.ikknight.octofault.utils.monitors.FaultCode;
+import com.ikknight.octofault.utils.monitors.FaultRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sequence of fault raises and clears over simulated time. Register one with {@link com.ikknight.octofault.core.FaultManager#addFaultListener(FaultListener)} to record what actually happened, build another with {@link #expectRaised} and {@link #expectCleared}, and compare them with {@link #assertMatches(FaultTimeline, double)}.
+ */
+public class FaultTimeline implements FaultListener {
+
+    /**
+     * Whether an event raised or cleared a fault.
+     */
+    public enum Kind {
+        RAISED, CLEARED
+    }
+
+    /**
+     * One fault transition.
+     */
+    public static final class Event {
+        private final Kind kind;
+        private final double seconds;
+        private final String monitorName;
+        private final FaultCode code;
+
+        Event(Kind kind, double seconds, String monitorName, FaultCode code) {
+            this.kind = kind;
+            this.seconds = seconds;
+            this.monitorName = monitorName;
+            this.code = code;
+        }
+
+        /**
+         * Gets whether the fault was raised or cleared.
+         *
+         * @return Event kind
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Gets when the event happened.
+         *
+         * @return Simulated time in seconds
+         */
+        public double getSeconds() {
+            return seconds;
+        }
+
+        /**
+         * Gets the name of the monitor the event belongs to.
+         *
+         * @return Monitor name
+         */
+        public String getMonitorName() {
+            return monitorName;
+        }
+
+        /**
+         * Gets the fault raised.
+         *
+         * @return Fault code, null for clears since they cover every fault of the monitor
+         */
+        public FaultCode getCode() {
+            return code;
+        }
+
+        boolean sameAs(Event other) {
+            return kind == other.kind && monitorName.equals(other.monitorName) && code == other.code;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3fs %s %s%s", seconds, monitorName, kind, code != null ? " " + code : "");
+        }
+    }
+
+    private final List<Event> events = new ArrayList<>();
+
+    @Override
+    public synchronized void onFaultRaised(DeviceMonitor<?> monitor, FaultRecord fault) {
+        events.add(new Event(Kind.RAISED, fault.getFirstSeenNanos() / 1e9, monitor.getName(), fault.getCode()));
+    }
+
+    @Override
+    public synchronized void onFaultCleared(DeviceMonitor<?> monitor, long faultyForNanos) {
+        events.add(new Event(Kind.CLEARED, Clock.nanoTime() / 1e9, monitor.getName(), null));
+    }
+
+    /**
+     * Adds an expected fault raise.
+     *
+     * @param seconds When the fault should be raised
+     * @param monitorName Monitor that should raise it
+     * @param code Fault that should be raised
+     * @return This timeline, for chaining
+     */
+    public synchronized FaultTimeline expectRaised(double seconds, String monitorName, FaultCode code) {
+        events.add(new Event(Kind.RAISED, seconds, monitorName, code));
+        return this;
+    }
+
+    /**
+     * Adds an expected recovery.
+     *
+     * @param seconds When the monitor should recover
+     * @param monitorName Monitor that should recover
+     * @return This timeline, for chaining
+     */
+    public synchronized FaultTimeline expectCleared(double seconds, String monitorName) {
+        events.add(new Event(Kind.CLEARED, seconds, monitorName, null));
+        return this;
+    }
+
+    /**
+     * Gets the events in the order they were added.
+     *
+     * @return Read-only copy of the events
+     */
+    public synchronized List<Event> getEvents() {
+        return Collections.unmodifiableList(new ArrayList<>(events));
+    }
+
+    /**
+     * Compares this expected timeline with a recorded one. Every expected event must be matched by a recorded event of the same kind, monitor and fault within the tolerance, and every recorded event must be expected.
+     *
+     * @param actual The recorded timeline
+     * @param toleranceSeconds How far apart matching events may be
+     * @return Descriptions of every mismatch, empty if the timelines match
+     */
+    public List<String> compare(FaultTimeline actual, double toleranceSeconds) {
+        List<Event> expected = getEvents();
+        List<Event> remaining = new ArrayList<>(actual.getEvents());
+        List<String> mismatches = new ArrayList<>();
+        for (Event event : expected) {
+            Event match = null;
+            for (Event candidate : remaining) {
+                if (candidate.sameAs(event) && Math.abs(candidate.seconds - event.seconds) <= toleranceSeconds
+                        && (match == null || Math.abs(candidate.seconds - event.seconds) < Math.abs(match.seconds - event.seconds))) {
+                    match = candidate;
+                }
+            }
+            if (match == null) {
+                mismatches.add("missing: " + event);
+            } else {
+                remaining.remove(match);
+            }
+        }
+        for (Event event : remaining) {
+            mismatches.add("unexpected: " + event);
+        }
+        return mismatches;
+    }
+
+    /**
+     * Checks that a recorded timeline matches this expected one.
+     *
+     * @param actual The recorded timeline
+     * @param toleranceSeconds How far apart matching events may be
+     * @throws AssertionError Listing every mismatch, if the timelines differ
+     */
+    public void assertMatches(FaultTimeline actual, double toleranceSeconds) {
+        List<String> mismatches = compare(actual, toleranceSeconds);
+        if (!mismatches.isEmpty()) {
+            StringBuilder message = new StringBuilder("Fault timeline mismatch:");
+            for (String mismatch : mismatches) {
+                message.append("\n  ").append(mismatch);
+            }
+            throw new AssertionError(message.toString());
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Event event : events) {
+            builder.append(event).append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.ikknight.octofault.sim;
+
+import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.robotcore.hardware.I2cAddr;
+import com.qualcomm.robotcore.hardware.NormalizedColorSensor;
+import com.qualcomm.robotcore.hardware.NormalizedRGBA;
+
+/**
+ * Simulated {@link ColorSensor} returning set channel values. Like a REV Color Sensor V3 it is also a {@link NormalizedColorSensor}, reading all channels in one transaction, with normalized values being the raw values times the gain over 65535.
+ */
+public class SimColorSensor extends SimDevice implements ColorSensor, NormalizedColorSensor {
+
+    private int red = 100;
+    private int green = 100;
+    private int blue = 100;
+    private int alpha = 300;
+    private float gain = 1.0f;
+    private boolean ledEnabled = true;
+    private I2cAddr address = I2cAddr.create7bit(0x52);
+
+    /**
+     * Creates a simulated color sensor seeing a neutral grey surface.
+     *
+     * @param deviceName Name reported by {@link #getDeviceName()}
+     */
+    public SimColorSensor(String deviceName) {
+        super(deviceName);
+    }
+
+    /**
+     * Sets the channel values.
+     *
+     * @param red Red channel
+     * @param green Green channel
+     * @param blue Blue channel
+     * @param alpha Alpha (clear) channel
+     */
+    public void simColor(int red, int green, int blue, int alpha) {
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+        this.alpha = alpha;
+    }
+
+    /**
+     * Gets whether the LED was last switched on.
+     *
+     * @return LED state
+     */
+    public boolean isLedEnabled() {
+        return ledEnabled;
+    }
+
+    @Override
+    public int red() {
+        simulateRead();
+        return red;
+    }
+
+    @Override
+    public int green() {
+        simulateRead();
+        return green;
+    }
+
+    @Override
+    public int blue() {
+        simulateRead();
+        return blue;
+    }
+
+    @Override
+    public int alpha() {
+        simulateRead();
+        return alpha;
+    }
+
+    @Override
+    public int argb() {
+        simulateRead();
+        return clip(alpha) << 24 | clip(red) << 16 | clip(green) << 8 | clip(blue);
+    }
+
+    @Override
+    public NormalizedRGBA getNormalizedColors() {
+        simulateRead();
+        NormalizedRGBA colors = new NormalizedRGBA();
+        colors.red = normalize(red);
+        colors.green = normalize(green);
+        colors.blue = normalize(blue);
+        colors.alpha = normalize(alpha);
+        return colors;
+    }
+
+    @Override
+    public float getGain() {
+        return gain;
+    }
+
+    @Override
+    public void setGain(float newGain) {
+        this.gain = newGain;
+    }
+
+    @Override
+    public void enableLed(boolean enable) {
+        this.ledEnabled = enable;
+    }
+
+    @Override
+    public void setI2cAddress(I2cAddr newAddress) {
+        this.address = newAddress;
+    }
+
+    @Override
+    public I2cAddr getI2cAddress() {
+        return address;
+    }
+
+    private float normalize(int channel) {
+        return Math.min(1.0f, channel * gain / 65535.0f);
+    }
+
+    private static int clip(int channel) {
+        return Math.max(0, Math.min(255, channel));
+    }
+}
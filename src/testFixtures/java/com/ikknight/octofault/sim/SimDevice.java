@@ -0,0 +1,117 @@
+package com.ikknight.octofault.sim;
+
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class for simulated hardware devices. Values are set directly by the test or benchmark driving them, and every read can be slowed down by a configurable latency to stand in for a hub transaction.
+ */
+public abstract class SimDevice implements HardwareDevice {
+
+    private final String deviceName;
+    private String connectionInfo = "Simulated";
+    private volatile long readLatencyNanos = 0;
+    private volatile String readFailure = null;
+    // counted from every thread updating monitors, including parallel group workers
+    private final AtomicLong reads = new AtomicLong();
+
+    /**
+     * Creates a simulated device.
+     *
+     * @param deviceName Name reported by {@link #getDeviceName()}
+     */
+    protected SimDevice(String deviceName) {
+        this.deviceName = deviceName;
+    }
+
+    /**
+     * Sets how long each read of the device takes. The reading thread busy-waits, as it would on a blocking hub transaction.
+     *
+     * @param readLatencyNanos Read latency in nanoseconds, 0 for instant reads
+     */
+    public void setReadLatencyNanos(long readLatencyNanos) {
+        this.readLatencyNanos = Math.max(0, readLatencyNanos);
+    }
+
+    /**
+     * Gets how long each read of the device takes.
+     *
+     * @return Read latency in nanoseconds
+     */
+    public long getReadLatencyNanos() {
+        return readLatencyNanos;
+    }
+
+    /**
+     * Makes every read throw, as a device that dropped off the I2C bus or a hub that stopped answering would.
+     *
+     * @param message Exception message, or null to make reads succeed again
+     */
+    public void simReadFailure(String message) {
+        this.readFailure = message;
+    }
+
+    /**
+     * Gets the number of reads made since creation.
+     *
+     * @return Read count
+     */
+    public long getReadCount() {
+        return reads.get();
+    }
+
+    /**
+     * Sets the connection info reported by {@link #getConnectionInfo()}.
+     *
+     * @param connectionInfo Connection info, for example {@code "module 2; port 0"}
+     */
+    public void setConnectionInfo(String connectionInfo) {
+        this.connectionInfo = connectionInfo;
+    }
+
+    /**
+     * Simulates one hardware read: counts it, waits for the read latency and throws if a read failure is set. Call at the start of every getter that would talk to the hub.
+     */
+    protected void simulateRead() {
+        reads.incrementAndGet();
+        String failure = readFailure;
+        if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+        long latency = readLatencyNanos;
+        if (latency == 0) return;
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < latency) {
+            // spin, a parked thread would not show up as loop time
+        }
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return connectionInfo;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,38 @@
+package com.ikknight.octofault.sim;
+
+import com.qualcomm.robotcore.hardware.DistanceSensor;
+
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+
+/**
+ * Simulated {@link DistanceSensor} returning a set distance.
+ */
+public class SimDistanceSensor extends SimDevice implements DistanceSensor {
+
+    private double distanceCm = 10.0;
+
+    /**
+     * Creates a simulated distance sensor reading 10cm.
+     *
+     * @param deviceName Name reported by {@link #getDeviceName()}
+     */
+    public SimDistanceSensor(String deviceName) {
+        super(deviceName);
+    }
+
+    /**
+     * Sets the distance returned by {@link #getDistance(DistanceUnit)}.
+     *
+     * @param distanceCm Distance in centimeters, may be NaN or {@link #distanceOutOfRange}
+     */
+    public void simDistance(double distanceCm) {
+        this.distanceCm = distanceCm;
+    }
+
+    @Override
+    public double getDistance(DistanceUnit unit) {
+        simulateRead();
+        if (distanceCm == distanceOutOfRange || Double.isNaN(distanceCm)) return distanceCm;
+        return unit.fromCm(distanceCm);
+    }
+}
@@ -0,0 +1,144 @@
+package com.ikknight.octofault.sim;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Hardware map populated with simulated devices, for running Octofault off the robot. Device values follow {@link Trace}s over a {@link VirtualClock}, so a full match runs in seconds and produces the same faults at the same simulated times on every run.
+ * <pre>{@code
+ * SimHardwareMap hardwareMap = new SimHardwareMap();
+ * SimMotor lift = hardwareMap.add("lift", new SimMotor("lift"));
+ * Trace encoder = Trace.ramp(0, 2000).stalled(5, 8);
+ * hardwareMap.drive(Trace.constant(0.8), lift::simPower)
+ *         .drive(encoder, value -> lift.simPosition((int) value))
+ *         .drive(encoder.derivative(), lift::simVelocity);
+ *
+ * Octofault octofault = new Octofault(hardwareMap, loggingStream);
+ * FaultTimeline timeline = new FaultTimeline();
+ * octofault.getFaultManager().addFaultListener(timeline);
+ * hardwareMap.run(150, 20, octofault::update);
+ * }</pre>
+ * The map's clock is installed as Octofault's time source on construction; call {@link VirtualClock#uninstall()} when done if the same JVM runs anything else.
+ */
+public class SimHardwareMap extends HardwareMap {
+
+    private final VirtualClock clock;
+    private final List<Binding> bindings = new ArrayList<>();
+
+    /**
+     * Creates an empty simulated hardware map with a new virtual clock at time 0, and installs the clock.
+     */
+    public SimHardwareMap() {
+        this(new VirtualClock());
+    }
+
+    /**
+     * Creates an empty simulated hardware map on the given clock, and installs the clock.
+     *
+     * @param clock The simulated time source
+     */
+    public SimHardwareMap(VirtualClock clock) {
+        super(null, null);
+        this.clock = clock;
+        clock.install();
+    }
+
+    /**
+     * Adds a simulated device under a configuration name.
+     *
+     * @param name Configuration name, as in the robot configuration file
+     * @param device The device
+     * @param <T> Device type
+     * @return The device, for chaining
+     */
+    public <T extends SimDevice> T add(String name, T device) {
+        put(name, device);
+        return device;
+    }
+
+    /**
+     * Feeds a trace into a device value on every step. Values are applied in the order the traces were added.
+     *
+     * @param trace The value over time
+     * @param target Setter receiving the value, for example {@code motor::simPower}
+     * @return This map, for chaining
+     */
+    public SimHardwareMap drive(Trace trace, DoubleConsumer target) {
+        bindings.add(new Binding(trace, target));
+        target.accept(trace.valueAt(clock.getSeconds()));
+        return this;
+    }
+
+    /**
+     * Makes every read of a device throw during a window, like an I2C device dropping off the bus.
+     *
+     * @param device The device that fails
+     * @param fromSeconds Start of the failure
+     * @param toSeconds End of the failure
+     * @param message Exception message
+     * @return This map, for chaining
+     */
+    public SimHardwareMap failReads(SimDevice device, double fromSeconds, double toSeconds, String message) {
+        return drive(seconds -> seconds >= fromSeconds && seconds < toSeconds ? 1 : 0,
+                failing -> device.simReadFailure(failing != 0 ? message : null));
+    }
+
+    /**
+     * Applies every trace at the current simulated time.
+     */
+    public void apply() {
+        double seconds = clock.getSeconds();
+        for (int i = 0; i < bindings.size(); i++) {
+            Binding binding = bindings.get(i);
+            binding.target.accept(binding.trace.valueAt(seconds));
+        }
+    }
+
+    /**
+     * Advances simulated time and applies every trace.
+     *
+     * @param millis Milliseconds to advance
+     */
+    public void step(long millis) {
+        clock.advanceMillis(millis);
+        apply();
+    }
+
+    /**
+     * Runs a scenario: applies the traces, calls {@code tick}, then advances by one tick, until the duration has elapsed.
+     *
+     * @param seconds Simulated duration, for example 150 for a full match
+     * @param tickMillis Simulated loop period in milliseconds
+     * @param tick Called once per loop, typically {@code octofault::update}
+     */
+    public void run(double seconds, long tickMillis, Runnable tick) {
+        long end = clock.nanoTime() + (long) (seconds * 1e9);
+        apply();
+        while (clock.nanoTime() < end) {
+            tick.run();
+            step(tickMillis);
+        }
+    }
+
+    /**
+     * Gets the simulated clock driving this map.
+     *
+     * @return The virtual clock
+     */
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    private static final class Binding {
+        final Trace trace;
+        final DoubleConsumer target;
+
+        Binding(Trace trace, DoubleConsumer target) {
+            this.trace = trace;
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ikknight.octofault.sim;
+
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.firstinspires.ftc.robotcore.external.navigation.Quaternion;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+
+/**
+ * Simulated {@link IMU}. Yaw, pitch, roll and yaw rate are set in degrees; either reading can be made unavailable to simulate a disconnected sensor.
+ */
+public class SimIMU extends SimDevice implements IMU {
+
+    private double yaw = 0.0;
+    private double pitch = 0.0;
+    private double roll = 0.0;
+    private double yawRate = 0.0;
+    private double yawOffset = 0.0;
+    private boolean orientationAvailable = true;
+    private boolean angularVelocityAvailable = true;
+
+    /**
+     * Creates a simulated IMU lying flat and facing forward.
+     *
+     * @param deviceName Name reported by {@link #getDeviceName()}
+     */
+    public SimIMU(String deviceName) {
+        super(deviceName);
+    }
+
+    /**
+     * Sets the robot orientation.
+     *
+     * @param yaw Yaw in degrees, may be NaN
+     * @param pitch Pitch in degrees, may be NaN
+     * @param roll Roll in degrees, may be NaN
+     */
+    public void simOrientation(double yaw, double pitch, double roll) {
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.roll = roll;
+    }
+
+    /**
+     * Sets the yaw rate.
+     *
+     * @param degreesPerSecond Rotation rate around the Z axis in degrees per second
+     */
+    public void simYawRate(double degreesPerSecond) {
+        this.yawRate = degreesPerSecond;
+    }
+
+    /**
+     * Makes the orientation and angular velocity readings available or not. Unavailable readings return null, as the SDK does when the sensor stops responding.
+     *
+     * @param orientation Whether orientation can be read
+     * @param angularVelocity Whether angular velocity can be read
+     */
+    public void simAvailable(boolean orientation, boolean angularVelocity) {
+        this.orientationAvailable = orientation;
+        this.angularVelocityAvailable = angularVelocity;
+    }
+
+    @Override
+    public boolean initialize(Parameters parameters) {
+        return true;
+    }
+
+    @Override
+    public void resetYaw() {
+        yawOffset = yaw;
+    }
+
+    @Override
+    public YawPitchRollAngles getRobotYawPitchRollAngles() {
+        simulateRead();
+        if (!orientationAvailable) return null;
+        return new YawPitchRollAngles(AngleUnit.DEGREES, yaw - yawOffset, pitch, roll, System.nanoTime());
+    }
+
+    @Override
+    public Orientation getRobotOrientation(AxesReference reference, AxesOrder order, AngleUnit angleUnit) {
+        simulateRead();
+        if (!orientationAvailable) return null;
+        // the SDK's yaw/pitch/roll are intrinsic Z, X, Y rotations
+        return new Orientation(AxesReference.INTRINSIC, AxesOrder.ZXY, AngleUnit.DEGREES,
+                (float) (yaw - yawOffset), (float) pitch, (float) roll, System.nanoTime())
+                .toAxesReference(reference)
+                .toAxesOrder(order)
+                .toAngleUnit(angleUnit);
+    }
+
+    @Override
+    public Quaternion getRobotOrientationAsQuaternion() {
+        simulateRead();
+        if (!orientationAvailable) return null;
+        double z = Math.toRadians(yaw - yawOffset) / 2;
+        double x = Math.toRadians(pitch) / 2;
+        double y = Math.toRadians(roll) / 2;
+        double cz = Math.cos(z), sz = Math.sin(z);
+        double cx = Math.cos(x), sx = Math.sin(x);
+        double cy = Math.cos(y), sy = Math.sin(y);
+        // qz * qx * qy
+        return new Quaternion(
+                (float) (cz * cx * cy - sz * sx * sy),
+                (float) (cz * sx * cy - sz * cx * sy),
+                (float) (cz * cx * sy + sz * sx * cy),
+                (float) (sz * cx * cy + cz * sx * sy),
+                System.nanoTime());
+    }
+
+    @Override
+    public AngularVelocity getRobotAngularVelocity(AngleUnit angleUnit) {
+        simulateRead();
+        if (!angularVelocityAvailable) return null;
+        return new AngularVelocity(angleUnit, 0f, 0f, (float) angleUnit.fromDegrees(yawRate), System.nanoTime());
+    }
+}
@@ -0,0 +1,290 @@
+package com.ikknight.octofault.sim;
+
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.PIDCoefficients;
+import com.qualcomm.robotcore.hardware.PIDFCoefficients;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+
+/**
+ * Simulated {@link DcMotorEx}. Power, encoder position, velocity and current are plain values set with the {@code sim*} methods; nothing moves on its own. Velocities passed with an {@link AngleUnit} treat one encoder tick as one degree.
+ */
+public class SimMotor extends SimDevice implements DcMotorEx {
+
+    private double power = 0.0;
+    private int position = 0;
+    private double velocity = 0.0;
+    private double currentAmps = 0.0;
+    private double currentAlertAmps = 5.0;
+    private boolean busy = false;
+    private boolean enabled = true;
+    private int targetPosition = 0;
+    private int targetPositionTolerance = 5;
+    private Direction direction = Direction.FORWARD;
+    private RunMode mode = RunMode.RUN_WITHOUT_ENCODER;
+    private ZeroPowerBehavior zeroPowerBehavior = ZeroPowerBehavior.BRAKE;
+    private MotorConfigurationType motorType;
+    private PIDFCoefficients velocityCoefficients = new PIDFCoefficients(10, 3, 0, 0);
+    private PIDFCoefficients positionCoefficients = new PIDFCoefficients(10, 0, 0, 0);
+
+    /**
+     * Creates a simulated motor at rest.
+     *
+     * @param deviceName Name reported by {@link #getDeviceName()}
+     */
+    public SimMotor(String deviceName) {
+        super(deviceName);
+    }
+
+    /**
+     * Sets the power returned by {@link #getPower()}, as if the OpMode had commanded it.
+     *
+     * @param power Motor power, may be NaN
+     */
+    public void simPower(double power) {
+        this.power = power;
+    }
+
+    /**
+     * Sets the encoder position returned by {@link #getCurrentPosition()}.
+     *
+     * @param position Encoder position in ticks
+     */
+    public void simPosition(int position) {
+        this.position = position;
+    }
+
+    /**
+     * Sets the velocity returned by {@link #getVelocity()}.
+     *
+     * @param velocity Velocity in ticks per second
+     */
+    public void simVelocity(double velocity) {
+        this.velocity = velocity;
+    }
+
+    /**
+     * Sets the current returned by {@link #getCurrent(CurrentUnit)}.
+     *
+     * @param amps Motor current in amps
+     */
+    public void simCurrent(double amps) {
+        this.currentAmps = amps;
+    }
+
+    /**
+     * Sets the value returned by {@link #isBusy()}.
+     *
+     * @param busy Whether the motor is running to a target
+     */
+    public void simBusy(boolean busy) {
+        this.busy = busy;
+    }
+
+    @Override
+    public void setPower(double power) {
+        this.power = power;
+    }
+
+    @Override
+    public double getPower() {
+        simulateRead();
+        return power;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public MotorConfigurationType getMotorType() {
+        return motorType;
+    }
+
+    @Override
+    public void setMotorType(MotorConfigurationType motorType) {
+        this.motorType = motorType;
+    }
+
+    @Override
+    public DcMotorController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setZeroPowerBehavior(ZeroPowerBehavior zeroPowerBehavior) {
+        this.zeroPowerBehavior = zeroPowerBehavior;
+    }
+
+    @Override
+    public ZeroPowerBehavior getZeroPowerBehavior() {
+        return zeroPowerBehavior;
+    }
+
+    @Deprecated
+    @Override
+    public void setPowerFloat() {
+        zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+        power = 0.0;
+    }
+
+    @Override
+    public boolean getPowerFloat() {
+        return zeroPowerBehavior == ZeroPowerBehavior.FLOAT && power == 0.0;
+    }
+
+    @Override
+    public void setTargetPosition(int position) {
+        this.targetPosition = position;
+    }
+
+    @Override
+    public int getTargetPosition() {
+        return targetPosition;
+    }
+
+    @Override
+    public boolean isBusy() {
+        simulateRead();
+        return busy;
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        simulateRead();
+        return position;
+    }
+
+    @Override
+    public void setMode(RunMode mode) {
+        this.mode = mode;
+        if (mode == RunMode.STOP_AND_RESET_ENCODER) {
+            position = 0;
+        }
+    }
+
+    @Override
+    public RunMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public void setMotorEnable() {
+        enabled = true;
+    }
+
+    @Override
+    public void setMotorDisable() {
+        enabled = false;
+    }
+
+    @Override
+    public boolean isMotorEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setVelocity(double angularRate) {
+        this.velocity = angularRate;
+    }
+
+    @Override
+    public void setVelocity(double angularRate, AngleUnit unit) {
+        this.velocity = unit.toDegrees(angularRate);
+    }
+
+    @Override
+    public double getVelocity() {
+        simulateRead();
+        return velocity;
+    }
+
+    @Override
+    public double getVelocity(AngleUnit unit) {
+        simulateRead();
+        return unit.fromDegrees(velocity);
+    }
+
+    @Deprecated
+    @Override
+    public void setPIDCoefficients(RunMode mode, PIDCoefficients pidCoefficients) {
+        setPIDFCoefficients(mode, new PIDFCoefficients(pidCoefficients));
+    }
+
+    @Override
+    public void setPIDFCoefficients(RunMode mode, PIDFCoefficients pidfCoefficients) {
+        if (mode == RunMode.RUN_TO_POSITION) {
+            positionCoefficients = new PIDFCoefficients(pidfCoefficients);
+        } else {
+            velocityCoefficients = new PIDFCoefficients(pidfCoefficients);
+        }
+    }
+
+    @Override
+    public void setVelocityPIDFCoefficients(double p, double i, double d, double f) {
+        velocityCoefficients = new PIDFCoefficients(p, i, d, f);
+    }
+
+    @Override
+    public void setPositionPIDFCoefficients(double p) {
+        positionCoefficients = new PIDFCoefficients(p, 0, 0, 0);
+    }
+
+    @Deprecated
+    @Override
+    public PIDCoefficients getPIDCoefficients(RunMode mode) {
+        PIDFCoefficients coefficients = getPIDFCoefficients(mode);
+        return new PIDCoefficients(coefficients.p, coefficients.i, coefficients.d);
+    }
+
+    @Override
+    public PIDFCoefficients getPIDFCoefficients(RunMode mode) {
+        return new PIDFCoefficients(mode == RunMode.RUN_TO_POSITION ? positionCoefficients : velocityCoefficients);
+    }
+
+    @Override
+    public void setTargetPositionTolerance(int tolerance) {
+        this.targetPositionTolerance = tolerance;
+    }
+
+    @Override
+    public int getTargetPositionTolerance() {
+        return targetPositionTolerance;
+    }
+
+    @Override
+    public double getCurrent(CurrentUnit unit) {
+        simulateRead();
+        return unit == CurrentUnit.MILLIAMPS ? currentAmps * 1000.0 : currentAmps;
+    }
+
+    @Override
+    public double getCurrentAlert(CurrentUnit unit) {
+        return unit == CurrentUnit.MILLIAMPS ? currentAlertAmps * 1000.0 : currentAlertAmps;
+    }
+
+    @Override
+    public void setCurrentAlert(double current, CurrentUnit unit) {
+        this.currentAlertAmps = unit == CurrentUnit.MILLIAMPS ? current / 1000.0 : current;
+    }
+
+    @Override
+    public boolean isOverCurrent() {
+        simulateRead();
+        return currentAmps > currentAlertAmps;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ikknight.octofault.sim;
+
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.ServoController;
+
+/**
+ * Simulated {@link Servo} on its own simulated controller, so the controller's PWM status can be switched off to simulate a disabled port.
+ */
+public class SimServo extends SimDevice implements Servo {
+
+    private final Controller controller;
+    private double position = 0.0;
+    private double minPosition = MIN_POSITION;
+    private double maxPosition = MAX_POSITION;
+    private Direction direction = Direction.FORWARD;
+
+    /**
+     * Creates a simulated servo at position 0 with PWM enabled.
+     *
+     * @param deviceName Name reported by {@link #getDeviceName()}
+     */
+    public SimServo(String deviceName) {
+        super(deviceName);
+        this.controller = new Controller(deviceName + " controller");
+    }
+
+    /**
+     * Sets the position returned by {@link #getPosition()}, bypassing range scaling so out-of-range values can be simulated.
+     *
+     * @param position Servo position, may be NaN or outside [0, 1]
+     */
+    public void simPosition(double position) {
+        this.position = position;
+    }
+
+    /**
+     * Enables or disables PWM on the servo's controller.
+     *
+     * @param enabled Whether PWM is enabled
+     */
+    public void simPwmEnabled(boolean enabled) {
+        if (enabled) {
+            controller.pwmEnable();
+        } else {
+            controller.pwmDisable();
+        }
+    }
+
+    @Override
+    public ServoController getController() {
+        return controller;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setPosition(double position) {
+        double clipped = Math.max(MIN_POSITION, Math.min(MAX_POSITION, position));
+        if (direction == Direction.REVERSE) clipped = MAX_POSITION - clipped;
+        this.position = minPosition + clipped * (maxPosition - minPosition);
+    }
+
+    @Override
+    public double getPosition() {
+        simulateRead();
+        double scaled = maxPosition == minPosition ? position : (position - minPosition) / (maxPosition - minPosition);
+        return direction == Direction.REVERSE ? MAX_POSITION - scaled : scaled;
+    }
+
+    @Override
+    public void scaleRange(double min, double max) {
+        if (min < MIN_POSITION || max > MAX_POSITION || min >= max) {
+            throw new IllegalArgumentException("invalid servo range [" + min + ", " + max + "]");
+        }
+        this.minPosition = min;
+        this.maxPosition = max;
+    }
+
+    private final class Controller extends SimDevice implements ServoController {
+        private PwmStatus pwmStatus = PwmStatus.ENABLED;
+
+        Controller(String deviceName) {
+            super(deviceName);
+        }
+
+        @Override
+        public void pwmEnable() {
+            pwmStatus = PwmStatus.ENABLED;
+        }
+
+        @Override
+        public void pwmDisable() {
+            pwmStatus = PwmStatus.DISABLED;
+        }
+
+        @Override
+        public PwmStatus getPwmStatus() {
+            SimServo.this.simulateRead();
+            return pwmStatus;
+        }
+
+        @Override
+        public void setServoPosition(int servo, double position) {
+            SimServo.this.position = position;
+        }
+
+        @Override
+        public double getServoPosition(int servo) {
+            return SimServo.this.position;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ikknight.octofault.sim;
+
+import com.qualcomm.robotcore.hardware.TouchSensor;
+
+/**
+ * Simulated {@link TouchSensor} returning a set analog value. It reports pressed above 0.5.
+ */
+public class SimTouchSensor extends SimDevice implements TouchSensor {
+
+    private double value = 0.0;
+
+    /**
+     * Creates a simulated touch sensor that is not pressed.
+     *
+     * @param deviceName Name reported by {@link #getDeviceName()}
+     */
+    public SimTouchSensor(String deviceName) {
+        super(deviceName);
+    }
+
+    /**
+     * Sets the value returned by {@link #getValue()}.
+     *
+     * @param value Sensor value, normally 0 or 1 but may be NaN or out of range
+     */
+    public void simValue(double value) {
+        this.value = value;
+    }
+
+    @Override
+    public double getValue() {
+        simulateRead();
+        return value;
+    }
+
+    @Override
+    public boolean isPressed() {
+        simulateRead();
+        return value > 0.5;
+    }
+}
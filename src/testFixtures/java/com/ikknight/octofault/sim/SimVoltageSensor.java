@@ -0,0 +1,35 @@
+package com.ikknight.octofault.sim;
+
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+/**
+ * Simulated {@link VoltageSensor} returning a set battery voltage.
+ */
+public class SimVoltageSensor extends SimDevice implements VoltageSensor {
+
+    private double voltage = 13.0;
+
+    /**
+     * Creates a simulated voltage sensor reading a charged battery (13V).
+     *
+     * @param deviceName Name reported by {@link #getDeviceName()}
+     */
+    public SimVoltageSensor(String deviceName) {
+        super(deviceName);
+    }
+
+    /**
+     * Sets the voltage returned by {@link #getVoltage()}.
+     *
+     * @param voltage Battery voltage in volts
+     */
+    public void simVoltage(double voltage) {
+        this.voltage = voltage;
+    }
+
+    @Override
+    public double getVoltage() {
+        simulateRead();
+        return voltage;
+    }
+}
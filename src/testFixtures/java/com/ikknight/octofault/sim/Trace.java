@@ -0,0 +1,130 @@
+package com.ikknight.octofault.sim;
+
+/**
+ * A value as a function of simulated time, used to script what a simulated device reads. Build traces from the factory methods and shape them with the default methods, for example an encoder that ramps at 2000 ticks/s, stalls from 5s to 8s and reads NaN for 200ms at 12s:
+ * {@code Trace.ramp(0, 2000).stalled(5, 8).withNanBurst(12, 0.2)}
+ *
+ * @see SimHardwareMap#drive(Trace, java.util.function.DoubleConsumer)
+ */
+@FunctionalInterface
+public interface Trace {
+
+    /**
+     * Gets the value at a point in time.
+     *
+     * @param seconds Simulated time in seconds
+     * @return The value
+     */
+    double valueAt(double seconds);
+
+    /**
+     * A value that never changes.
+     *
+     * @param value The value
+     * @return Constant trace
+     */
+    static Trace constant(double value) {
+        return seconds -> value;
+    }
+
+    /**
+     * A value growing at a constant rate from time 0, like an encoder on a motor at constant speed.
+     *
+     * @param start Value at time 0
+     * @param perSecond Change per second
+     * @return Ramp trace
+     */
+    static Trace ramp(double start, double perSecond) {
+        return seconds -> start + perSecond * seconds;
+    }
+
+    /**
+     * A value moving linearly between two times and holding before and after.
+     *
+     * @param from Value up to {@code startSeconds}
+     * @param to Value from {@code endSeconds}
+     * @param startSeconds Start of the change
+     * @param endSeconds End of the change
+     * @return Ramp trace
+     */
+    static Trace ramp(double from, double to, double startSeconds, double endSeconds) {
+        return seconds -> {
+            if (seconds <= startSeconds) return from;
+            if (seconds >= endSeconds) return to;
+            return from + (to - from) * (seconds - startSeconds) / (endSeconds - startSeconds);
+        };
+    }
+
+    /**
+     * A battery voltage that sags under load and recovers: nominal, a linear drop to the minimum, then a linear recovery.
+     *
+     * @param nominal Voltage outside the sag
+     * @param minimum Lowest voltage reached
+     * @param startSeconds When the sag starts
+     * @param dropSeconds How long the drop takes
+     * @param recoverSeconds How long the recovery takes
+     * @return Voltage sag trace
+     */
+    static Trace sag(double nominal, double minimum, double startSeconds, double dropSeconds, double recoverSeconds) {
+        Trace drop = ramp(nominal, minimum, startSeconds, startSeconds + dropSeconds);
+        Trace recover = ramp(minimum, nominal, startSeconds + dropSeconds, startSeconds + dropSeconds + recoverSeconds);
+        return seconds -> seconds < startSeconds + dropSeconds ? drop.valueAt(seconds) : recover.valueAt(seconds);
+    }
+
+    /**
+     * Freezes this trace during a window and continues from the frozen value afterwards, like an encoder on a stalled motor.
+     *
+     * @param fromSeconds Start of the stall
+     * @param toSeconds End of the stall
+     * @return Stalled trace
+     */
+    default Trace stalled(double fromSeconds, double toSeconds) {
+        double duration = toSeconds - fromSeconds;
+        return seconds -> {
+            if (seconds < fromSeconds) return valueAt(seconds);
+            if (seconds < toSeconds) return valueAt(fromSeconds);
+            return valueAt(seconds - duration);
+        };
+    }
+
+    /**
+     * Reads NaN during a window.
+     *
+     * @param fromSeconds Start of the burst
+     * @param durationSeconds Length of the burst
+     * @return Trace with a NaN burst
+     */
+    default Trace withNanBurst(double fromSeconds, double durationSeconds) {
+        return seconds -> seconds >= fromSeconds && seconds < fromSeconds + durationSeconds ? Double.NaN : valueAt(seconds);
+    }
+
+    /**
+     * Switches to another trace from a point in time.
+     *
+     * @param atSeconds When to switch
+     * @param next Trace followed from then on
+     * @return Combined trace
+     */
+    default Trace then(double atSeconds, Trace next) {
+        return seconds -> seconds < atSeconds ? valueAt(seconds) : next.valueAt(seconds);
+    }
+
+    /**
+     * Adds another trace to this one.
+     *
+     * @param other Trace to add
+     * @return Sum of both traces
+     */
+    default Trace plus(Trace other) {
+        return seconds -> valueAt(seconds) + other.valueAt(seconds);
+    }
+
+    /**
+     * The rate of change of this trace, for example a velocity matching an encoder trace.
+     *
+     * @return Trace of the change per second, over the preceding millisecond
+     */
+    default Trace derivative() {
+        return seconds -> (valueAt(seconds) - valueAt(seconds - 0.001)) / 0.001;
+    }
+}
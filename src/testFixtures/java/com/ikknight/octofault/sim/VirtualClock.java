@@ -0,0 +1,78 @@
+package com.ikknight.octofault.sim;
+
+import com.ikknight.octofault.utils.Clock;
+
+/**
+ * Simulated time that only moves when advanced. Install it with {@link #install()} before creating monitors so fault timestamps, poll intervals and stall detection all follow simulated time.
+ */
+public class VirtualClock implements Clock.TimeSource {
+
+    private volatile long nanos;
+
+    /**
+     * Creates a clock at time 0.
+     */
+    public VirtualClock() {
+        this(0);
+    }
+
+    /**
+     * Creates a clock at the given time.
+     *
+     * @param startNanos Initial time in nanoseconds
+     */
+    public VirtualClock(long startNanos) {
+        this.nanos = startNanos;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    /**
+     * Gets the current time.
+     *
+     * @return Time in seconds
+     */
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+
+    /**
+     * Moves time forward.
+     *
+     * @param deltaNanos Nanoseconds to advance, must not be negative
+     */
+    public void advanceNanos(long deltaNanos) {
+        if (deltaNanos < 0) {
+            throw new IllegalArgumentException("time cannot go backwards");
+        }
+        nanos += deltaNanos;
+    }
+
+    /**
+     * Moves time forward.
+     *
+     * @param deltaMillis Milliseconds to advance, must not be negative
+     */
+    public void advanceMillis(long deltaMillis) {
+        advanceNanos(deltaMillis * 1_000_000L);
+    }
+
+    /**
+     * Makes this clock the time source for Octofault.
+     */
+    public void install() {
+        Clock.setTimeSource(this);
+    }
+
+    /**
+     * Restores the system clock as the time source, if this clock is installed.
+     */
+    public void uninstall() {
+        if (Clock.getTimeSource() == this) {
+            Clock.setTimeSource(null);
+        }
+    }
+}